@@ -1,39 +1,100 @@
 package vn.vnpay;
 
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import vn.vnpay.service.AccountService;
+import vn.vnpay.service.StandingOrderScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BankServer {
     private final int port;
+    private final int binaryPort;
+    private final int bossThreads;
+    private final int workerThreads;
     private final AccountService accountService;
 
-    public BankServer(int port) {
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private ExecutorService importExecutor;
+    private ExecutorService standingOrderExecutor;
+    private StandingOrderScheduler standingOrderScheduler;
+    private Channel httpChannel;
+    private Channel binaryChannel;
+
+    /**
+     * @param workerThreads số thread event loop; {@code 0} dùng mặc định của Netty (2 x số lõi)
+     */
+    public BankServer(int port, int binaryPort, int bossThreads, int workerThreads) {
         this.port = port;
+        this.binaryPort = binaryPort;
+        this.bossThreads = bossThreads;
+        this.workerThreads = workerThreads;
         this.accountService = new AccountService();
     }
 
+    /**
+     * Bind cả hai listener rồi trả về ngay; dùng {@link #awaitTermination()} để chờ server đóng.
+     */
     public void start() throws Exception {
-        EventLoopGroup bossGroup = new NioEventLoopGroup();
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
+        bossGroup = new NioEventLoopGroup(bossThreads);
+        workerGroup = new NioEventLoopGroup(workerThreads);
+        // Parse và nạp các lô import ngoài event loop
+        importExecutor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new DefaultThreadFactory("bank-import"));
+        // Lệnh định kỳ đến hạn chạy theo lô trên pool riêng, không chiếm event loop
+        int standingOrderThreads = Runtime.getRuntime().availableProcessors();
+        standingOrderExecutor = Executors.newFixedThreadPool(
+                standingOrderThreads, new DefaultThreadFactory("bank-standing-order"));
+        standingOrderScheduler = new StandingOrderScheduler(accountService, standingOrderExecutor, standingOrderThreads);
 
         try {
             ServerBootstrap b = new ServerBootstrap();
             b.group(bossGroup, workerGroup)
                     .channel(NioServerSocketChannel.class)
-                    .childHandler(new BankServerInitializer(accountService))
+                    .childHandler(new BankServerInitializer(accountService, importExecutor, standingOrderScheduler))
                     .option(ChannelOption.SO_BACKLOG, 128)
                     .childOption(ChannelOption.SO_KEEPALIVE, true);
 
-            ChannelFuture f = b.bind(port).sync();
-            f.channel().closeFuture().sync();
+            // Listener nhị phân dùng chung event loop và AccountService với HTTP
+            ServerBootstrap binary = new ServerBootstrap();
+            binary.group(bossGroup, workerGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new BinaryServerInitializer(accountService))
+                    .option(ChannelOption.SO_BACKLOG, 128)
+                    .childOption(ChannelOption.SO_KEEPALIVE, true)
+                    .childOption(ChannelOption.TCP_NODELAY, true);
+
+            httpChannel = b.bind(port).sync().channel();
+            binaryChannel = binary.bind(binaryPort).sync().channel();
+        } catch (Exception e) {
+            stop();
+            throw e;
+        }
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        try {
+            httpChannel.closeFuture().sync();
+            binaryChannel.closeFuture().sync();
         } finally {
-            workerGroup.shutdownGracefully();
-            bossGroup.shutdownGracefully();
+            stop();
         }
     }
+
+    public void stop() {
+        if (httpChannel != null) httpChannel.close();
+        if (binaryChannel != null) binaryChannel.close();
+        importExecutor.shutdown();
+        standingOrderScheduler.stop();
+        standingOrderExecutor.shutdown();
+        workerGroup.shutdownGracefully();
+        bossGroup.shutdownGracefully();
+    }
 }
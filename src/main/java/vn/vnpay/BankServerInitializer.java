@@ -1,27 +1,81 @@
 package vn.vnpay;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.CompressionOptions;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
+import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import vn.vnpay.api.BankHandler;
+import vn.vnpay.api.bulk.AccountImportHandler;
+import vn.vnpay.model.Account;
 import vn.vnpay.service.AccountService;
+import vn.vnpay.service.StandingOrderScheduler;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public class BankServerInitializer extends ChannelInitializer<SocketChannel> {
 
+    /**
+     * Response nhỏ hơn ngưỡng này không được nén: header gzip/deflate còn lớn hơn phần tiết kiệm được.
+     */
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
     private final AccountService accountService;
+    private final Executor importExecutor;
+    private final ObjectMapper objectMapper;
+    private final BankHandler bankHandler;
 
-    public BankServerInitializer(AccountService accountService) {
+    public BankServerInitializer(AccountService accountService, Executor importExecutor,
+                                 StandingOrderScheduler standingOrderScheduler) {
         this.accountService = accountService;
+        this.importExecutor = importExecutor;
+        this.objectMapper = new ObjectMapper();
+        warmUp(objectMapper);
+        this.bankHandler = new BankHandler(accountService, objectMapper, standingOrderScheduler);
     }
 
     @Override
     protected void initChannel(SocketChannel ch) {
         ChannelPipeline pipeline = ch.pipeline();
         pipeline.addLast(new HttpServerCodec());
+        pipeline.addLast(newCompressor());
+        // Import đọc body theo luồng nên phải đứng trước aggregator
+        pipeline.addLast(new AccountImportHandler(this.accountService, objectMapper, importExecutor));
         pipeline.addLast(new HttpObjectAggregator(1048576));
-        pipeline.addLast(new BankHandler(this.accountService));
+        pipeline.addLast(new ChunkedWriteHandler());
+        pipeline.addLast(bankHandler);
+    }
+
+    /**
+     * Dựng sẵn serializer/deserializer cho {@link Account} để request đầu tiên không phải trả chi phí introspection.
+     */
+    static void warmUp(ObjectMapper objectMapper) {
+        try {
+            Account account = new Account("AC0", "warm-up", "SAVINGS");
+            objectMapper.readValue(objectMapper.writeValueAsBytes(account), Account.class);
+            objectMapper.readTree("{\"amount\":1.0}");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Nén theo {@code Accept-Encoding}: gzip, deflate và brotli khi brotli4j có trên classpath.
+     * Response dạng chunked (export) luôn được nén nếu client chấp nhận.
+     */
+    public static HttpContentCompressor newCompressor() {
+        CompressionOptions[] options = Brotli.isAvailable()
+                ? new CompressionOptions[]{StandardCompressionOptions.brotli(),
+                StandardCompressionOptions.gzip(), StandardCompressionOptions.deflate()}
+                : new CompressionOptions[]{StandardCompressionOptions.gzip(), StandardCompressionOptions.deflate()};
+        return new HttpContentCompressor(COMPRESSION_THRESHOLD, options);
     }
 }
@@ -0,0 +1,30 @@
+package vn.vnpay;
+
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import vn.vnpay.api.binary.BinaryBankHandler;
+import vn.vnpay.api.binary.BinaryProtocol;
+import vn.vnpay.service.AccountService;
+
+public class BinaryServerInitializer extends ChannelInitializer<SocketChannel> {
+
+    private final LengthFieldPrepender lengthFieldPrepender;
+    private final BinaryBankHandler binaryBankHandler;
+
+    public BinaryServerInitializer(AccountService accountService) {
+        this.lengthFieldPrepender = new LengthFieldPrepender(BinaryProtocol.LENGTH_FIELD_LENGTH);
+        this.binaryBankHandler = new BinaryBankHandler(accountService);
+    }
+
+    @Override
+    protected void initChannel(SocketChannel ch) {
+        ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast(new LengthFieldBasedFrameDecoder(BinaryProtocol.MAX_FRAME_LENGTH,
+                0, BinaryProtocol.LENGTH_FIELD_LENGTH, 0, BinaryProtocol.LENGTH_FIELD_LENGTH));
+        pipeline.addLast(lengthFieldPrepender);
+        pipeline.addLast(binaryBankHandler);
+    }
+}
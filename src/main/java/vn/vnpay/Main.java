@@ -1,8 +1,68 @@
 package vn.vnpay;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Khởi động server, cấu hình qua system property:
+ * <ul>
+ *     <li>{@code bank.port} (8080), {@code bank.binaryPort} (8081)</li>
+ *     <li>{@code bank.bossThreads} (1), {@code bank.workerThreads} (0 = mặc định của Netty)</li>
+ *     <li>{@code bank.cds.training}: gửi vài request để nạp các class trên đường xử lý rồi thoát,
+ *     dùng cho lần chạy tạo AppCDS archive ({@code mvn -Pappcds package}, xem pom.xml)</li>
+ * </ul>
+ */
 public class Main {
     public static void main(String[] args) throws Exception {
-        int port = 8080;
-        new BankServer(port).start();
+        int port = Integer.getInteger("bank.port", 8080);
+        int binaryPort = Integer.getInteger("bank.binaryPort", 8081);
+        int bossThreads = Integer.getInteger("bank.bossThreads", 1);
+        int workerThreads = Integer.getInteger("bank.workerThreads", 0);
+
+        BankServer server = new BankServer(port, binaryPort, bossThreads, workerThreads);
+        server.start();
+        if (Boolean.getBoolean("bank.cds.training")) {
+            runTrainingRequests(port);
+            server.stop();
+            return;
+        }
+        server.awaitTermination();
+    }
+
+    private static void runTrainingRequests(int port) throws Exception {
+        String base = "http://127.0.0.1:" + port + "/accounts";
+        String account = request("POST", base, "{\"ownerName\":\"CDS Training\",\"accountType\":\"SAVINGS\"}");
+        String accountNumber = account.replaceAll(".*\"accountNumber\":\"([^\"]+)\".*", "$1");
+        request("POST", base + "/" + accountNumber + "/deposit", "{\"amount\":100.0}");
+        request("POST", base + "/" + accountNumber + "/withdraw", "{\"amount\":10.0}");
+        request("GET", base + "/" + accountNumber, null);
+        request("GET", base + "?owner=cds", null);
+        request("GET", base + "/NotExisting", null);
+    }
+
+    private static String request(String method, String url, String body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        StringBuilder response = new StringBuilder();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            response.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        in.close();
+        connection.disconnect();
+        return response.toString();
     }
-}
\ No newline at end of file
+}
@@ -2,83 +2,157 @@ package vn.vnpay.api;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import vn.vnpay.api.bulk.AccountExportInput;
+import vn.vnpay.api.bulk.BulkFormat;
 import vn.vnpay.model.Account;
+import vn.vnpay.model.StandingOrder;
 import vn.vnpay.service.AccountService;
+import vn.vnpay.service.StandingOrderScheduler;
+import vn.vnpay.trace.Phase;
+import vn.vnpay.trace.Tracer;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ * Handler HTTP không giữ trạng thái theo kết nối nên một instance được dùng chung cho mọi kênh;
+ * bảng route và {@link ObjectMapper} chỉ được tạo một lần.
+ */
+@ChannelHandler.Sharable
 public class BankHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_TRACE_LIMIT = 20;
+    private static final int MAX_TRACE_LIMIT = 1000;
+
+    private static final Pattern DEPOSIT_URI = Pattern.compile("/accounts/[^/]+/deposit");
+    private static final Pattern WITHDRAW_URI = Pattern.compile("/accounts/[^/]+/withdraw");
+    private static final Pattern APPLY_INTEREST_URI = Pattern.compile("/accounts/[^/]+/applyInterest");
+    private static final Pattern ACCOUNT_URI = Pattern.compile("/accounts/[^/]+");
+    private static final Pattern STANDING_ORDER_URI = Pattern.compile("/standing-orders/[^/]+");
+
     private final AccountService accountService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
+    private final StandingOrderScheduler standingOrderScheduler;
 
     private final Map<String, RouteHandler> routeHandlers = new HashMap<>();
 
     public BankHandler(AccountService accountService) {
+        this(accountService, new ObjectMapper());
+    }
+
+    public BankHandler(AccountService accountService, ObjectMapper objectMapper) {
+        this(accountService, objectMapper, null);
+    }
+
+    /**
+     * @param standingOrderScheduler có thể {@code null}; khi đó các route {@code /standing-orders} không được đăng ký
+     */
+    public BankHandler(AccountService accountService, ObjectMapper objectMapper,
+                       StandingOrderScheduler standingOrderScheduler) {
         this.accountService = accountService;
+        this.objectMapper = objectMapper;
+        this.standingOrderScheduler = standingOrderScheduler;
         initializeRoutes();
     }
 
     private void initializeRoutes() {
         routeHandlers.put("POST /accounts", this::handleCreateAccount);
+        routeHandlers.put("GET /accounts", this::handleFindByOwner);
         routeHandlers.put("POST /accounts/transfer", this::handleTransfer);
+        routeHandlers.put("GET /accounts/export", this::handleExport);
         routeHandlers.put("GET /accounts/{accountNumber}", this::handleGetAccount);
         routeHandlers.put("POST /accounts/{accountNumber}/deposit", this::handleDeposit);
         routeHandlers.put("POST /accounts/{accountNumber}/withdraw", this::handleWithdraw);
         routeHandlers.put("POST /accounts/{accountNumber}/applyInterest", this::handleApplyInterest);
+        routeHandlers.put("GET /admin/traces/slowest", this::handleSlowestTraces);
+        if (standingOrderScheduler != null) {
+            routeHandlers.put("POST /standing-orders", this::handleCreateStandingOrder);
+            routeHandlers.put("GET /standing-orders/{id}", this::handleGetStandingOrder);
+            routeHandlers.put("DELETE /standing-orders/{id}", this::handleCancelStandingOrder);
+        }
     }
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        Tracer.begin();
         String uri = request.uri();
         HttpMethod method = request.method();
 
         // Xử lý URI để trích xuất các tham số
         String routeKey = method.name() + " " + normalizeUri(uri);
         RouteHandler handler = routeHandlers.get(routeKey);
+        Tracer.route(routeKey);
 
+        int status = HttpResponseStatus.OK.code();
         if (handler != null) {
             try {
                 handler.handle(ctx, request);
             } catch (IllegalArgumentException e) {
-                FullHttpResponse response = buildResponse(HttpResponseStatus.BAD_REQUEST, "\"" + e.getMessage() + "\"");
+                status = HttpResponseStatus.BAD_REQUEST.code();
+                Tracer.error(e);
+                Tracer.mark(Phase.SERVICE);
+                FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.BAD_REQUEST, "\"" + e.getMessage() + "\"");
+                Tracer.mark(Phase.ENCODE);
                 ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
             } catch (Exception e) {
-                FullHttpResponse response = buildResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "\"Lỗi server\"");
+                status = HttpResponseStatus.INTERNAL_SERVER_ERROR.code();
+                Tracer.error(e);
+                Tracer.mark(Phase.SERVICE);
+                FullHttpResponse response = HttpResponses.serverError();
                 e.printStackTrace();
+                Tracer.mark(Phase.ENCODE);
                 ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
             }
         } else {
-            FullHttpResponse response = buildResponse(HttpResponseStatus.NOT_FOUND, "\"API không tồn tại\"");
+            status = HttpResponseStatus.NOT_FOUND.code();
+            FullHttpResponse response = HttpResponses.notFound();
             ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
         }
+        Tracer.mark(Phase.FLUSH);
+        Tracer.end(status);
     }
 
     private String normalizeUri(String uri) {
-        if (uri.matches("/accounts/[^/]+/deposit")) {
+        int queryStart = uri.indexOf('?');
+        if (queryStart >= 0) {
+            uri = uri.substring(0, queryStart);
+        }
+        if (DEPOSIT_URI.matcher(uri).matches()) {
             return "/accounts/{accountNumber}/deposit";
-        } else if (uri.matches("/accounts/[^/]+/withdraw")) {
+        } else if (WITHDRAW_URI.matcher(uri).matches()) {
             return "/accounts/{accountNumber}/withdraw";
-        } else if (uri.matches("/accounts/[^/]+/applyInterest")) {
+        } else if (APPLY_INTEREST_URI.matcher(uri).matches()) {
             return "/accounts/{accountNumber}/applyInterest";
         } else if (uri.equals("/accounts/transfer")) { // Kiểm tra exact match trước
             return "/accounts/transfer";
-        } else if (uri.matches("/accounts/[^/]+")) {
+        } else if (uri.equals("/accounts/export")) {
+            return "/accounts/export";
+        } else if (ACCOUNT_URI.matcher(uri).matches()) {
             return "/accounts/{accountNumber}";
+        } else if (STANDING_ORDER_URI.matcher(uri).matches()) {
+            return "/standing-orders/{id}";
         } else {
             return uri;
         }
@@ -90,29 +164,81 @@ public class BankHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         JsonNode jsonNode = objectMapper.readTree(body);
         String ownerName = jsonNode.get("ownerName").asText();
         String accountType = jsonNode.get("accountType").asText();
+        Tracer.mark(Phase.DECODE);
         Account account = accountService.openAccount(ownerName, accountType);
-        String responseBody = objectMapper.writeValueAsString(account);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.SERVICE);
+        byte[] responseBody = objectMapper.writeValueAsBytes(account);
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.ENCODE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void handleFindByOwner(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        String owner = queryParam(decoder, "owner", null);
+        if (owner == null || owner.trim().isEmpty()) {
+            throw new IllegalArgumentException("Thiếu tham số owner");
+        }
+        // after = số tài khoản cuối của trang trước; khi có after thì page bị bỏ qua
+        String after = queryParam(decoder, "after", null);
+        int page = parseIntParam(queryParam(decoder, "page", "0"));
+        int size = Math.min(parseIntParam(queryParam(decoder, "size", String.valueOf(DEFAULT_PAGE_SIZE))), MAX_PAGE_SIZE);
+        Tracer.mark(Phase.DECODE);
+        List<Account> accounts = after != null
+                ? accountService.findByOwnerAfter(owner, after, size)
+                : accountService.findByOwner(owner, page, size);
+        Tracer.mark(Phase.SERVICE);
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("owner", owner);
+        result.put("page", page);
+        result.put("size", size);
+        result.set("accounts", objectMapper.valueToTree(accounts));
+        // Con trỏ cho trang kế tiếp; null khi đã hết kết quả
+        result.put("next", accounts.size() == size ? accounts.get(size - 1).getAccountNumber() : null);
+        byte[] responseBody = objectMapper.writeValueAsBytes(result);
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.ENCODE);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
+    /**
+     * Stream toàn bộ tài khoản bằng chunked transfer; cần {@code ChunkedWriteHandler} phía trước trong pipeline.
+     */
+    private void handleExport(ChannelHandlerContext ctx, FullHttpRequest request) {
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        BulkFormat format = BulkFormat.fromQuery(queryParam(decoder, "format", null));
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, format.contentType());
+        HttpUtil.setTransferEncodingChunked(response, true);
+        ctx.write(response);
+        AccountExportInput input = new AccountExportInput(accountService.getAccounts(), format, objectMapper.writer());
+        ctx.writeAndFlush(new HttpChunkedInput(input)).addListener(ChannelFutureListener.CLOSE);
+    }
+
     private void handleTransfer(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
         String body = request.content().toString(StandardCharsets.UTF_8);
         JsonNode jsonNode = objectMapper.readTree(body);
         String fromAccount = jsonNode.get("fromAccount").asText();
         String toAccount = jsonNode.get("toAccount").asText();
         double amount = jsonNode.get("amount").asDouble();
+        Tracer.mark(Phase.DECODE);
         accountService.transfer(fromAccount, toAccount, amount);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, "\"Chuyển tiền thành công\"");
+        Tracer.mark(Phase.SERVICE);
+        FullHttpResponse response = HttpResponses.transferOk();
+        Tracer.mark(Phase.ENCODE);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
     private void handleGetAccount(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
         String uri = request.uri();
         String accountNumber = uri.split("/")[2];
+        Tracer.mark(Phase.DECODE);
         Account account = accountService.getAccount(accountNumber);
-        String responseBody = objectMapper.writeValueAsString(account);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.SERVICE);
+        byte[] responseBody = objectMapper.writeValueAsBytes(account);
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.ENCODE);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
@@ -122,8 +248,11 @@ public class BankHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         String body = request.content().toString(StandardCharsets.UTF_8);
         JsonNode jsonNode = objectMapper.readTree(body);
         double amount = jsonNode.get("amount").asDouble();
+        Tracer.mark(Phase.DECODE);
         accountService.deposit(accountNumber, amount);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, "\"Gửi tiền thành công\"");
+        Tracer.mark(Phase.SERVICE);
+        FullHttpResponse response = HttpResponses.depositOk();
+        Tracer.mark(Phase.ENCODE);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
@@ -133,25 +262,86 @@ public class BankHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
         String body = request.content().toString(StandardCharsets.UTF_8);
         JsonNode jsonNode = objectMapper.readTree(body);
         double amount = jsonNode.get("amount").asDouble();
+        Tracer.mark(Phase.DECODE);
         accountService.withdraw(accountNumber, amount);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, "\"Rút tiền thành công\"");
+        Tracer.mark(Phase.SERVICE);
+        FullHttpResponse response = HttpResponses.withdrawOk();
+        Tracer.mark(Phase.ENCODE);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
     private void handleApplyInterest(ChannelHandlerContext ctx, FullHttpRequest request) {
         String uri = request.uri();
         String accountNumber = uri.split("/")[2];
+        Tracer.mark(Phase.DECODE);
         accountService.applyMonthlyInterest(accountNumber);
-        FullHttpResponse response = buildResponse(HttpResponseStatus.OK, "\"Áp dụng lãi suất thành công\"");
+        Tracer.mark(Phase.SERVICE);
+        FullHttpResponse response = HttpResponses.interestOk();
+        Tracer.mark(Phase.ENCODE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void handleSlowestTraces(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+        int limit = Math.min(parseIntParam(queryParam(decoder, "limit", String.valueOf(DEFAULT_TRACE_LIMIT))), MAX_TRACE_LIMIT);
+        if (limit <= 0) throw new IllegalArgumentException("Tham số không hợp lệ: " + limit);
+        byte[] responseBody = objectMapper.writeValueAsBytes(Tracer.slowest(limit));
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
         ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     }
 
-    private FullHttpResponse buildResponse(HttpResponseStatus status, String content) {
-        ByteBuf contentBuffer = Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
-        FullHttpResponse response = new DefaultFullHttpResponse(
-                HttpVersion.HTTP_1_1, status, contentBuffer);
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
-        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, contentBuffer.readableBytes());
-        return response;
+    private void handleCreateStandingOrder(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        String body = request.content().toString(StandardCharsets.UTF_8);
+        JsonNode jsonNode = objectMapper.readTree(body);
+        String fromAccount = jsonNode.get("fromAccount").asText();
+        String toAccount = jsonNode.get("toAccount").asText();
+        double amount = jsonNode.get("amount").asDouble();
+        long intervalMillis = TimeUnit.SECONDS.toMillis(jsonNode.get("intervalSeconds").asLong());
+        // Mặc định lần chạy đầu là sau một chu kỳ
+        long firstExecutionMillis = jsonNode.has("firstExecutionAt")
+                ? jsonNode.get("firstExecutionAt").asLong()
+                : System.currentTimeMillis() + intervalMillis;
+        Tracer.mark(Phase.DECODE);
+        StandingOrder order = standingOrderScheduler.schedule(fromAccount, toAccount, amount,
+                firstExecutionMillis, intervalMillis);
+        Tracer.mark(Phase.SERVICE);
+        byte[] responseBody = objectMapper.writeValueAsBytes(order);
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.ENCODE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void handleGetStandingOrder(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        String id = request.uri().split("/")[2];
+        Tracer.mark(Phase.DECODE);
+        StandingOrder order = standingOrderScheduler.getOrder(id);
+        Tracer.mark(Phase.SERVICE);
+        byte[] responseBody = objectMapper.writeValueAsBytes(order);
+        FullHttpResponse response = HttpResponses.buildResponse(HttpResponseStatus.OK, responseBody);
+        Tracer.mark(Phase.ENCODE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void handleCancelStandingOrder(ChannelHandlerContext ctx, FullHttpRequest request) {
+        String id = request.uri().split("/")[2];
+        Tracer.mark(Phase.DECODE);
+        if (!standingOrderScheduler.cancel(id)) throw new IllegalArgumentException("Lệnh định kỳ không tồn tại");
+        Tracer.mark(Phase.SERVICE);
+        FullHttpResponse response = HttpResponses.standingOrderCancelled();
+        Tracer.mark(Phase.ENCODE);
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private String queryParam(QueryStringDecoder decoder, String name, String defaultValue) {
+        List<String> values = decoder.parameters().get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    private int parseIntParam(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Tham số không hợp lệ: " + value);
+        }
     }
 }
@@ -0,0 +1,80 @@
+package vn.vnpay.api;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tạo response JSON dùng chung cho các handler HTTP.
+ * <p>
+ * Các thông điệp cố định được mã hóa một lần vào buffer direct, chỉ đọc và không bị release; mỗi response chỉ
+ * lấy {@code duplicate()} nên không cấp phát hay sao chép nội dung.
+ */
+public final class HttpResponses {
+
+    private static final ByteBuf TRANSFER_OK = constant("\"Chuyển tiền thành công\"");
+    private static final ByteBuf DEPOSIT_OK = constant("\"Gửi tiền thành công\"");
+    private static final ByteBuf WITHDRAW_OK = constant("\"Rút tiền thành công\"");
+    private static final ByteBuf INTEREST_OK = constant("\"Áp dụng lãi suất thành công\"");
+    private static final ByteBuf STANDING_ORDER_CANCELLED = constant("\"Hủy lệnh định kỳ thành công\"");
+    private static final ByteBuf NOT_FOUND = constant("\"API không tồn tại\"");
+    private static final ByteBuf SERVER_ERROR = constant("\"Lỗi server\"");
+
+    private HttpResponses() {
+    }
+
+    public static FullHttpResponse buildResponse(HttpResponseStatus status, ByteBuf content) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, content);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        return response;
+    }
+
+    public static FullHttpResponse buildResponse(HttpResponseStatus status, String content) {
+        return buildResponse(status, Unpooled.copiedBuffer(content, StandardCharsets.UTF_8));
+    }
+
+    public static FullHttpResponse buildResponse(HttpResponseStatus status, byte[] content) {
+        return buildResponse(status, Unpooled.wrappedBuffer(content));
+    }
+
+    public static FullHttpResponse transferOk() {
+        return buildResponse(HttpResponseStatus.OK, TRANSFER_OK.duplicate());
+    }
+
+    public static FullHttpResponse depositOk() {
+        return buildResponse(HttpResponseStatus.OK, DEPOSIT_OK.duplicate());
+    }
+
+    public static FullHttpResponse withdrawOk() {
+        return buildResponse(HttpResponseStatus.OK, WITHDRAW_OK.duplicate());
+    }
+
+    public static FullHttpResponse interestOk() {
+        return buildResponse(HttpResponseStatus.OK, INTEREST_OK.duplicate());
+    }
+
+    public static FullHttpResponse standingOrderCancelled() {
+        return buildResponse(HttpResponseStatus.OK, STANDING_ORDER_CANCELLED.duplicate());
+    }
+
+    public static FullHttpResponse notFound() {
+        return buildResponse(HttpResponseStatus.NOT_FOUND, NOT_FOUND.duplicate());
+    }
+
+    public static FullHttpResponse serverError() {
+        return buildResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, SERVER_ERROR.duplicate());
+    }
+
+    private static ByteBuf constant(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuf buffer = Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+        return Unpooled.unreleasableBuffer(buffer.asReadOnly());
+    }
+}
@@ -0,0 +1,127 @@
+package vn.vnpay.api.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+import vn.vnpay.trace.Phase;
+import vn.vnpay.trace.Tracer;
+
+/**
+ * Xử lý frame nhị phân (đã được bóc trường length) và gọi cùng {@link AccountService} với API HTTP.
+ * <p>
+ * Kết nối được giữ mở, client có thể gửi nhiều request liên tiếp và ghép response theo correlationId.
+ * Response chỉ được flush một lần cho mỗi lượt đọc socket. Handler không giữ trạng thái nên được dùng chung.
+ */
+@ChannelHandler.Sharable
+public class BinaryBankHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+    private static final String[] ROUTE_NAMES = {
+            null, "BINARY GET", "BINARY DEPOSIT", "BINARY WITHDRAW", "BINARY TRANSFER"};
+
+    private final AccountService accountService;
+
+    public BinaryBankHandler(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+        Tracer.begin();
+        byte opcode = frame.readByte();
+        long correlationId = frame.readLong();
+        Tracer.route(routeName(opcode));
+        ByteBuf response = ctx.alloc().buffer();
+        response.writeByte(opcode);
+        response.writeLong(correlationId);
+        int statusIndex = response.writerIndex();
+        response.writeByte(BinaryProtocol.STATUS_OK);
+
+        int status = 200;
+        try {
+            switch (opcode) {
+                case BinaryProtocol.OP_GET: {
+                    String accountNumber = BinaryProtocol.readString(frame);
+                    Tracer.mark(Phase.DECODE);
+                    Account account = accountService.getAccount(accountNumber);
+                    Tracer.mark(Phase.SERVICE);
+                    BinaryProtocol.writeAccount(response, account);
+                    break;
+                }
+                case BinaryProtocol.OP_DEPOSIT: {
+                    String accountNumber = BinaryProtocol.readString(frame);
+                    double amount = frame.readDouble();
+                    Tracer.mark(Phase.DECODE);
+                    accountService.deposit(accountNumber, amount);
+                    Tracer.mark(Phase.SERVICE);
+                    break;
+                }
+                case BinaryProtocol.OP_WITHDRAW: {
+                    String accountNumber = BinaryProtocol.readString(frame);
+                    double amount = frame.readDouble();
+                    Tracer.mark(Phase.DECODE);
+                    accountService.withdraw(accountNumber, amount);
+                    Tracer.mark(Phase.SERVICE);
+                    break;
+                }
+                case BinaryProtocol.OP_TRANSFER: {
+                    String fromAccount = BinaryProtocol.readString(frame);
+                    String toAccount = BinaryProtocol.readString(frame);
+                    double amount = frame.readDouble();
+                    Tracer.mark(Phase.DECODE);
+                    accountService.transfer(fromAccount, toAccount, amount);
+                    Tracer.mark(Phase.SERVICE);
+                    break;
+                }
+                default:
+                    status = 404;
+                    writeError(response, statusIndex, BinaryProtocol.STATUS_NOT_FOUND, "API không tồn tại");
+                    break;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Payload ngắn hơn khai báo của opcode là lỗi phía client
+            status = 400;
+            Tracer.error(e);
+            Tracer.mark(Phase.DECODE);
+            writeError(response, statusIndex, BinaryProtocol.STATUS_BAD_REQUEST, "Dữ liệu yêu cầu không hợp lệ");
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            Tracer.error(e);
+            Tracer.mark(Phase.SERVICE);
+            writeError(response, statusIndex, BinaryProtocol.STATUS_BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            status = 500;
+            Tracer.error(e);
+            Tracer.mark(Phase.SERVICE);
+            writeError(response, statusIndex, BinaryProtocol.STATUS_SERVER_ERROR, "Lỗi server");
+            e.printStackTrace();
+        }
+        // Response chỉ được đưa vào hàng đợi ghi; flush gộp trong channelReadComplete nên không tính vào FLUSH
+        ctx.write(response);
+        Tracer.mark(Phase.ENCODE);
+        Tracer.end(status);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        ctx.flush();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        cause.printStackTrace();
+        ctx.close();
+    }
+
+    private static String routeName(byte opcode) {
+        return opcode > 0 && opcode < ROUTE_NAMES.length ? ROUTE_NAMES[opcode] : "BINARY UNKNOWN";
+    }
+
+    private void writeError(ByteBuf response, int statusIndex, byte status, String message) {
+        response.writerIndex(statusIndex);
+        response.writeByte(status);
+        BinaryProtocol.writeString(response, message);
+    }
+}
@@ -0,0 +1,78 @@
+package vn.vnpay.api.binary;
+
+import io.netty.buffer.ByteBuf;
+import vn.vnpay.model.Account;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Định dạng frame nhị phân dùng cho kết nối máy-máy.
+ *
+ * <pre>
+ * Request : [int length][byte opcode][long correlationId][payload]
+ *   GET      : [str accountNumber]
+ *   DEPOSIT  : [str accountNumber][double amount]
+ *   WITHDRAW : [str accountNumber][double amount]
+ *   TRANSFER : [str fromAccount][str toAccount][double amount]
+ *
+ * Response: [int length][byte opcode][long correlationId][byte status][payload]
+ *   STATUS_OK của GET : [account]
+ *   các status lỗi     : [str message]
+ *
+ * str     = [unsigned short byteLength][UTF-8 bytes]
+ * account = [str accountNumber][str ownerName][str accountType][double balance]
+ * </pre>
+ * <p>
+ * Trường length do {@code LengthFieldPrepender} ghi và được
+ * {@code LengthFieldBasedFrameDecoder} bóc ra, không tính chính nó.
+ */
+public final class BinaryProtocol {
+
+    public static final int LENGTH_FIELD_LENGTH = 4;
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    public static final byte OP_GET = 1;
+    public static final byte OP_DEPOSIT = 2;
+    public static final byte OP_WITHDRAW = 3;
+    public static final byte OP_TRANSFER = 4;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_BAD_REQUEST = 1;
+    public static final byte STATUS_NOT_FOUND = 2;
+    public static final byte STATUS_SERVER_ERROR = 3;
+
+    private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+    private BinaryProtocol() {
+    }
+
+    public static String readString(ByteBuf in) {
+        int length = in.readUnsignedShort();
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+
+    public static void writeString(ByteBuf out, String value) {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        int length = out.writeCharSequence(value, StandardCharsets.UTF_8);
+        if (length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("Chuỗi quá dài");
+        }
+        out.setShort(lengthIndex, length);
+    }
+
+    public static Account readAccount(ByteBuf in) {
+        Account account = new Account(readString(in), readString(in), readString(in));
+        account.setBalance(in.readDouble());
+        return account;
+    }
+
+    public static void writeAccount(ByteBuf out, Account account) {
+        writeString(out, account.getAccountNumber());
+        writeString(out, account.getOwnerName());
+        writeString(out, account.getAccountType());
+        out.writeDouble(account.getBalance());
+    }
+}
@@ -0,0 +1,102 @@
+package vn.vnpay.api.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import vn.vnpay.api.binary.BinaryProtocol;
+import vn.vnpay.model.Account;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Sinh dữ liệu export theo từng chunk khoảng {@link #CHUNK_SIZE} byte, duyệt thẳng trên map tài khoản.
+ * <p>
+ * {@code ChunkedWriteHandler} chỉ gọi {@link #readChunk} khi kênh còn ghi được, nên bộ nhớ dùng
+ * luôn bị chặn bởi vài chunk bất kể số lượng tài khoản.
+ */
+public class AccountExportInput implements ChunkedInput<ByteBuf> {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Iterator<Account> accounts;
+    private final BulkFormat format;
+    private final ObjectWriter writer;
+    private long progress;
+    private long skipped;
+
+    public AccountExportInput(Iterable<Account> accounts, BulkFormat format, ObjectWriter writer) {
+        this.accounts = accounts.iterator();
+        this.format = format;
+        this.writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return !accounts.hasNext();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        if (!accounts.hasNext()) return null;
+        ByteBuf chunk = allocator.buffer(CHUNK_SIZE + 1024);
+        try {
+            OutputStream out = new ByteBufOutputStream(chunk);
+            while (chunk.readableBytes() < CHUNK_SIZE && accounts.hasNext()) {
+                Account account = accounts.next();
+                if (format == BulkFormat.BINARY) {
+                    int lengthIndex = chunk.writerIndex();
+                    chunk.writeInt(0);
+                    try {
+                        BinaryProtocol.writeAccount(chunk, account);
+                    } catch (IllegalArgumentException e) {
+                        // Chuỗi quá dài cho định dạng nhị phân: bỏ qua tài khoản này thay vì hủy cả file export
+                        chunk.writerIndex(lengthIndex);
+                        skipped++;
+                        continue;
+                    }
+                    chunk.setInt(lengthIndex, chunk.writerIndex() - lengthIndex - 4);
+                } else {
+                    writer.writeValue(out, account);
+                    chunk.writeByte('\n');
+                }
+            }
+            progress += chunk.readableBytes();
+            return chunk;
+        } catch (Exception e) {
+            chunk.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Số tài khoản bị bỏ qua vì không mã hóa được sang định dạng nhị phân.
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    @Override
+    public long length() {
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return progress;
+    }
+}
@@ -0,0 +1,284 @@
+package vn.vnpay.api.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ByteProcessor;
+import io.netty.util.ReferenceCountUtil;
+import vn.vnpay.api.HttpResponses;
+import vn.vnpay.api.binary.BinaryProtocol;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Xử lý {@code POST /accounts/import} theo luồng, đặt trước {@code HttpObjectAggregator}: event loop cắt body thành
+ * các lô tại ranh giới bản ghi, việc parse và nạp tài khoản chạy trên {@code importExecutor}.
+ */
+public class AccountImportHandler extends ChannelInboundHandlerAdapter {
+
+    static final String IMPORT_URI = "/accounts/import";
+    static final int BATCH_SIZE = 1024 * 1024;
+    static final int MAX_IN_FLIGHT_BATCHES = 2 * Runtime.getRuntime().availableProcessors();
+    /**
+     * Đủ cho một tài khoản có cả ba chuỗi dài tối đa 65535 byte (bản ghi nhị phân 196.619 byte).
+     */
+    static final int MAX_RECORD_LENGTH = 256 * 1024;
+
+    private final AccountService accountService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader accountReader;
+    private final Executor importExecutor;
+
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    private boolean importing;
+    private boolean finished;
+    private BulkFormat format;
+    private ByteBuf cumulation;
+    // Vị trí ngay sau bản ghi đầy đủ cuối cùng trong cumulation và vị trí đã quét tới
+    private int boundary;
+    private int scanIndex;
+    private int inFlight;
+
+    public AccountImportHandler(AccountService accountService, ObjectMapper objectMapper, Executor importExecutor) {
+        this.accountService = accountService;
+        this.objectMapper = objectMapper;
+        this.accountReader = objectMapper.readerFor(Account.class);
+        this.importExecutor = importExecutor;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest && !importing) {
+            HttpRequest request = (HttpRequest) msg;
+            if (!HttpMethod.POST.equals(request.method()) || !isImportUri(request.uri())) {
+                ctx.fireChannelRead(msg);
+                return;
+            }
+            startImport(ctx, request);
+        }
+        if (!importing) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        try {
+            if (msg instanceof HttpContent && !finished) {
+                // cumulation == null: import đã bị từ chối, chỉ đọc bỏ phần body còn lại
+                if (cumulation != null) {
+                    cumulation.writeBytes(((HttpContent) msg).content());
+                    if (!scanBoundaries()) reject();
+                }
+                if (msg instanceof LastHttpContent) {
+                    finished = true;
+                    ByteBuf last = cumulation;
+                    cumulation = null;
+                    if (last != null && last.isReadable()) {
+                        submitBatch(ctx, last);
+                    } else if (last != null) {
+                        last.release();
+                    }
+                    completeIfDone(ctx);
+                } else if (cumulation != null && cumulation.readableBytes() >= BATCH_SIZE) {
+                    cutBatch(ctx);
+                }
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        if (cumulation != null) {
+            cumulation.release();
+            cumulation = null;
+        }
+    }
+
+    private boolean isImportUri(String uri) {
+        int queryStart = uri.indexOf('?');
+        return (queryStart >= 0 ? uri.substring(0, queryStart) : uri).equals(IMPORT_URI);
+    }
+
+    private void startImport(ChannelHandlerContext ctx, HttpRequest request) {
+        importing = true;
+        finished = false;
+        format = BulkFormat.fromContentType(request.headers().get(HttpHeaderNames.CONTENT_TYPE));
+        cumulation = ctx.alloc().buffer(BATCH_SIZE + BATCH_SIZE / 4);
+        boundary = 0;
+        scanIndex = 0;
+        if (HttpUtil.is100ContinueExpected(request)) {
+            ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
+        }
+    }
+
+    /**
+     * Dò tiếp các ranh giới bản ghi trong phần vừa nhận, bắt đầu từ chỗ đã quét ở chunk trước.
+     *
+     * @return {@code false} nếu bản ghi dở dang chắc chắn không hợp lệ (tiền tố độ dài sai hoặc dài quá
+     * {@link #MAX_RECORD_LENGTH})
+     */
+    private boolean scanBoundaries() {
+        int writerIndex = cumulation.writerIndex();
+        if (format == BulkFormat.BINARY) {
+            while (boundary + 4 <= writerIndex) {
+                int length = cumulation.getInt(boundary);
+                if (length < 0 || length > MAX_RECORD_LENGTH) return false;
+                if (boundary + 4 + length > writerIndex) break;
+                boundary += 4 + length;
+            }
+        } else {
+            while (scanIndex < writerIndex) {
+                int lf = cumulation.forEachByte(scanIndex, writerIndex - scanIndex, ByteProcessor.FIND_LF);
+                if (lf < 0) break;
+                boundary = lf + 1;
+                scanIndex = lf + 1;
+            }
+            scanIndex = writerIndex;
+        }
+        return writerIndex - boundary <= MAX_RECORD_LENGTH;
+    }
+
+    /**
+     * Tách phần dữ liệu tới ranh giới bản ghi cuối cùng thành một lô, phần dư chuyển sang bộ đệm mới.
+     */
+    private void cutBatch(ChannelHandlerContext ctx) {
+        if (boundary <= cumulation.readerIndex()) return;
+        ByteBuf remainder = ctx.alloc().buffer(BATCH_SIZE + BATCH_SIZE / 4);
+        remainder.writeBytes(cumulation, boundary, cumulation.writerIndex() - boundary);
+        ByteBuf batch = cumulation.writerIndex(boundary);
+        cumulation = remainder;
+        // Phần dư đã được quét và không chứa ranh giới nào
+        boundary = 0;
+        scanIndex = remainder.writerIndex();
+        submitBatch(ctx, batch);
+    }
+
+    private void reject() {
+        failure.compareAndSet(null, new IllegalArgumentException("Dữ liệu import không hợp lệ"));
+        cumulation.release();
+        cumulation = null;
+    }
+
+    private void submitBatch(ChannelHandlerContext ctx, ByteBuf batch) {
+        inFlight++;
+        if (inFlight >= MAX_IN_FLIGHT_BATCHES) {
+            ctx.channel().config().setAutoRead(false);
+        }
+        importExecutor.execute(() -> {
+            try {
+                // Lô trước đã lỗi thì không nạp tiếp, chỉ đọc hết body để trả lỗi
+                if (failure.get() == null) loadBatch(batch);
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                batch.release();
+                ctx.executor().execute(() -> onBatchDone(ctx));
+            }
+        });
+    }
+
+    private void onBatchDone(ChannelHandlerContext ctx) {
+        inFlight--;
+        if (!ctx.channel().config().isAutoRead() && inFlight < MAX_IN_FLIGHT_BATCHES) {
+            ctx.channel().config().setAutoRead(true);
+        }
+        completeIfDone(ctx);
+    }
+
+    private void loadBatch(ByteBuf batch) throws Exception {
+        if (format == BulkFormat.BINARY) {
+            while (batch.isReadable()) {
+                if (batch.readableBytes() < 4) throw new IllegalArgumentException("Dữ liệu import không hợp lệ");
+                int length = batch.readInt();
+                if (length < 0 || batch.readableBytes() < length)
+                    throw new IllegalArgumentException("Dữ liệu import không hợp lệ");
+                load(parseBinary(batch.readSlice(length)));
+            }
+        } else {
+            while (batch.isReadable()) {
+                int lf = batch.forEachByte(ByteProcessor.FIND_LF);
+                int end = lf < 0 ? batch.writerIndex() : lf;
+                ByteBuf line = batch.readSlice(end - batch.readerIndex());
+                if (lf >= 0) batch.skipBytes(1);
+                if (!isBlank(line)) {
+                    load(parseJson(line));
+                }
+            }
+        }
+    }
+
+    private Account parseBinary(ByteBuf record) {
+        try {
+            return BinaryProtocol.readAccount(record);
+        } catch (IndexOutOfBoundsException e) {
+            // Độ dài chuỗi bên trong vượt quá bản ghi
+            throw new IllegalArgumentException("Dữ liệu import không hợp lệ");
+        }
+    }
+
+    private Account parseJson(ByteBuf line) {
+        try {
+            if (line.hasArray()) {
+                return accountReader.readValue(line.array(), line.arrayOffset() + line.readerIndex(), line.readableBytes());
+            }
+            return accountReader.readValue(ByteBufUtil.getBytes(line));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Dữ liệu import không hợp lệ");
+        }
+    }
+
+    private void load(Account account) {
+        if (accountService.importAccount(account)) {
+            imported.incrementAndGet();
+        } else {
+            skipped.incrementAndGet();
+        }
+    }
+
+    private static boolean isBlank(ByteBuf line) {
+        return line.forEachByte(ByteProcessor.FIND_NON_LINEAR_WHITESPACE) < 0;
+    }
+
+    private void completeIfDone(ChannelHandlerContext ctx) {
+        if (!finished || inFlight > 0) return;
+        importing = false;
+        finished = false;
+
+        FullHttpResponse response;
+        Exception error = failure.getAndSet(null);
+        if (error == null) {
+            ObjectNode result = objectMapper.createObjectNode();
+            result.put("imported", imported.getAndSet(0));
+            result.put("skipped", skipped.getAndSet(0));
+            response = HttpResponses.buildResponse(HttpResponseStatus.OK, result.toString());
+        } else if (error instanceof IllegalArgumentException) {
+            response = HttpResponses.buildResponse(HttpResponseStatus.BAD_REQUEST, "\"" + error.getMessage() + "\"");
+        } else {
+            error.printStackTrace();
+            response = HttpResponses.serverError();
+        }
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+}
@@ -0,0 +1,35 @@
+package vn.vnpay.api.bulk;
+
+/**
+ * Định dạng dữ liệu cho export/import hàng loạt.
+ * <p>
+ * NDJSON: mỗi dòng là một {@code Account} dạng JSON.
+ * BINARY: mỗi bản ghi là {@code [int recordLength][account]} với {@code account} theo
+ * {@link vn.vnpay.api.binary.BinaryProtocol#writeAccount}. Độ dài dùng {@code int} vì ba chuỗi, mỗi chuỗi tới 65535
+ * byte, có thể vượt quá giới hạn của {@code unsigned short}.
+ */
+public enum BulkFormat {
+    NDJSON("application/x-ndjson"),
+    BINARY("application/octet-stream");
+
+    private final String contentType;
+
+    BulkFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static BulkFormat fromQuery(String format) {
+        if (format == null || format.equalsIgnoreCase("ndjson")) return NDJSON;
+        if (format.equalsIgnoreCase("binary")) return BINARY;
+        throw new IllegalArgumentException("Định dạng không hỗ trợ: " + format);
+    }
+
+    public static BulkFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.startsWith(BINARY.contentType)) return BINARY;
+        return NDJSON;
+    }
+}
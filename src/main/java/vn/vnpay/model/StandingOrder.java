@@ -0,0 +1,88 @@
+package vn.vnpay.model;
+
+/**
+ * Lệnh chuyển tiền định kỳ từ {@code fromAccount} sang {@code toAccount} sau mỗi {@code intervalMillis}.
+ * Trạng thái thực thi được scheduler cập nhật từ thread khác nên các trường thay đổi đều là {@code volatile}.
+ */
+public class StandingOrder {
+    private final String id;
+    private final String fromAccount;
+    private final String toAccount;
+    private final double amount;
+    private final long intervalMillis;
+    private volatile long nextExecutionMillis;
+    private volatile long executedCount;
+    private volatile long failedCount;
+    private volatile String lastError;
+    private volatile boolean active = true;
+
+    public StandingOrder(String id, String fromAccount, String toAccount, double amount,
+                         long intervalMillis, long firstExecutionMillis) {
+        this.id = id;
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+        this.intervalMillis = intervalMillis;
+        this.nextExecutionMillis = firstExecutionMillis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFromAccount() {
+        return fromAccount;
+    }
+
+    public String getToAccount() {
+        return toAccount;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public long getNextExecutionMillis() {
+        return nextExecutionMillis;
+    }
+
+    public void setNextExecutionMillis(long nextExecutionMillis) {
+        this.nextExecutionMillis = nextExecutionMillis;
+    }
+
+    public long getExecutedCount() {
+        return executedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * Chỉ một thread thực thi một lệnh tại một thời điểm nên tăng bộ đếm không cần đồng bộ.
+     */
+    public void recordSuccess() {
+        executedCount++;
+    }
+
+    public void recordFailure(String error) {
+        failedCount++;
+        lastError = error;
+    }
+}
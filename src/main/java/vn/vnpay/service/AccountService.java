@@ -1,24 +1,58 @@
 package vn.vnpay.service;
 
+import io.netty.buffer.ByteBufUtil;
 import vn.vnpay.model.Account;
+import vn.vnpay.trace.Tracer;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class AccountService {
+    // Giới hạn của chuỗi trong giao thức nhị phân ([unsigned short byteLength][UTF-8 bytes])
+    static final int MAX_TEXT_BYTES = 0xFFFF;
+
     private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+    private final OwnerIndex ownerIndex = new OwnerIndex();
 
     public Account openAccount(String ownerName, String accountType) {
+        if (!isValidText(ownerName)) throw new IllegalArgumentException("Tên chủ tài khoản không hợp lệ");
+        if (!isValidText(accountType)) throw new IllegalArgumentException("Loại tài khoản không hợp lệ");
         String accountNumber = generateAccountNumber();
         Account account = new Account(accountNumber, ownerName, accountType);
         accounts.put(accountNumber, account);
+        ownerIndex.add(account);
         return account;
     }
 
+    /**
+     * Nạp một tài khoản có sẵn số tài khoản (dùng khi import). Trả về {@code false} nếu số tài khoản đã tồn tại.
+     */
+    public boolean importAccount(Account account) {
+        String accountNumber = account.getAccountNumber();
+        if (!isValidText(accountNumber) || !isValidText(account.getOwnerName())
+                || !isValidText(account.getAccountType()))
+            throw new IllegalArgumentException("Dữ liệu import không hợp lệ");
+        if (accounts.putIfAbsent(accountNumber, account) != null) return false;
+        ownerIndex.add(account);
+        return true;
+    }
+
+    /**
+     * Chế độ xem chỉ đọc trên toàn bộ tài khoản, duyệt trực tiếp trên map mà không sao chép.
+     */
+    public Collection<Account> getAccounts() {
+        return Collections.unmodifiableCollection(accounts.values());
+    }
+
     public void deposit(String accountNumber, double amount) {
         Account account = getAccount(accountNumber);
         if (amount <= 0) throw new IllegalArgumentException("Số tiền gửi phải lớn hơn 0");
+        long lockRequested = Tracer.lockRequested();
         synchronized (account) {
+            Tracer.lockAcquired(lockRequested);
             account.setBalance(account.getBalance() + amount);
         }
     }
@@ -26,7 +60,9 @@ public class AccountService {
     public void withdraw(String accountNumber, double amount) {
         Account account = getAccount(accountNumber);
         if (amount <= 0) throw new IllegalArgumentException("Số tiền rút phải lớn hơn 0");
+        long lockRequested = Tracer.lockRequested();
         synchronized (account) {
+            Tracer.lockAcquired(lockRequested);
             if (account.getBalance() < amount) throw new IllegalArgumentException("Số dư không đủ");
             account.setBalance(account.getBalance() - amount);
         }
@@ -37,10 +73,14 @@ public class AccountService {
         Account toAccount = getAccount(toAccountNumber);
         if (fromAccountNumber.equals(toAccountNumber))
             throw new IllegalArgumentException("Không thể chuyển tiền cho cùng một tài khoản");
+        long fromLockRequested = Tracer.lockRequested();
         synchronized (fromAccount) {
+            Tracer.lockAcquired(fromLockRequested);
             withdraw(fromAccountNumber, amount);
         }
+        long toLockRequested = Tracer.lockRequested();
         synchronized (toAccount) {
+            Tracer.lockAcquired(toLockRequested);
             deposit(toAccountNumber, amount);
         }
     }
@@ -48,17 +88,37 @@ public class AccountService {
     public Account getAccount(String accountNumber) {
         Account account = accounts.get(accountNumber);
         if (account == null) throw new IllegalArgumentException("Tài khoản không tồn tại");
+        Tracer.account(accountNumber);
         return account;
     }
 
+    public List<Account> findByOwner(String ownerPrefix, int page, int size) {
+        return ownerIndex.findByOwnerPrefix(ownerPrefix, page, size);
+    }
+
+    /**
+     * Trang kế tiếp sau tài khoản {@code afterAccountNumber} (thường là phần tử cuối của trang trước).
+     */
+    public List<Account> findByOwnerAfter(String ownerPrefix, String afterAccountNumber, int size) {
+        return ownerIndex.findByOwnerPrefixAfter(ownerPrefix, getAccount(afterAccountNumber), size);
+    }
+
     public void applyMonthlyInterest(String accountNumber) {
         Account account = getAccount(accountNumber);
         double interest = InterestCalculator.calculateMonthlyInterest(account);
+        long lockRequested = Tracer.lockRequested();
         synchronized (account) {
+            Tracer.lockAcquired(lockRequested);
             account.setBalance(account.getBalance() + interest);
         }
     }
 
+    private static boolean isValidText(String value) {
+        if (value == null || value.isEmpty()) return false;
+        // Mỗi ký tự UTF-16 chiếm tối đa 3 byte UTF-8, chỉ đếm byte khi chuỗi đủ dài
+        return value.length() * 3 <= MAX_TEXT_BYTES || ByteBufUtil.utf8Bytes(value) <= MAX_TEXT_BYTES;
+    }
+
     private String generateAccountNumber() {
         // Giả lập việc tạo số tài khoản
         return "AC" + UUID.randomUUID();
@@ -0,0 +1,104 @@
+package vn.vnpay.service;
+
+import vn.vnpay.model.Account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Chỉ mục phụ theo tên chủ tài khoản, hỗ trợ tìm theo tiền tố và không phân biệt hoa thường.
+ * <p>
+ * Mỗi phần tử sắp theo tên đã chuẩn hóa rồi tới số tài khoản nên các tài khoản trùng tên vẫn tách biệt
+ * và thứ tự duyệt ổn định giữa các trang. Phần tử giữ tham chiếu tới {@link Account} thay vì ghép chuỗi khóa
+ * để không nhân bản số tài khoản. Skip list cho phép đọc/ghi đồng thời không cần khóa.
+ */
+public class OwnerIndex {
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    public void add(Account account) {
+        entries.add(new Entry(normalize(account.getOwnerName()), account));
+    }
+
+    /**
+     * Số phần tử tối đa được bỏ qua khi phân trang theo số trang; trang sâu hơn phải dùng
+     * {@link #findByOwnerPrefixAfter(String, Account, int)}.
+     */
+    public static final int MAX_OFFSET = 10_000;
+
+    /**
+     * Trả về một trang các tài khoản có tên chủ bắt đầu bằng {@code ownerPrefix}, sắp theo tên rồi số tài khoản.
+     * Chi phí tăng tuyến tính theo {@code page * size} nên độ sâu bị giới hạn bởi {@link #MAX_OFFSET}.
+     */
+    public List<Account> findByOwnerPrefix(String ownerPrefix, int page, int size) {
+        if (page < 0) throw new IllegalArgumentException("Số trang không hợp lệ");
+        if (size <= 0) throw new IllegalArgumentException("Kích thước trang không hợp lệ");
+        long skip = (long) page * size;
+        if (skip > MAX_OFFSET) throw new IllegalArgumentException("Trang quá sâu, hãy dùng tham số after");
+        return collect(range(ownerPrefix), skip, size);
+    }
+
+    /**
+     * Phân trang theo khóa: trả về tối đa {@code size} tài khoản đứng ngay sau {@code after} trong thứ tự của
+     * chỉ mục, nên mọi trang đều có chi phí như trang đầu.
+     */
+    public List<Account> findByOwnerPrefixAfter(String ownerPrefix, Account after, int size) {
+        if (size <= 0) throw new IllegalArgumentException("Kích thước trang không hợp lệ");
+        NavigableSet<Entry> range = range(ownerPrefix);
+        Entry cursor = new Entry(normalize(after.getOwnerName()), after);
+        if (range.isEmpty() || cursor.compareTo(range.first()) < 0) return collect(range, 0, size);
+        if (cursor.compareTo(range.last()) >= 0) return Collections.emptyList();
+        return collect(range.tailSet(cursor, false), 0, size);
+    }
+
+    private NavigableSet<Entry> range(String ownerPrefix) {
+        String prefix = normalize(ownerPrefix);
+        return entries.subSet(new Entry(prefix, null), true, new Entry(prefix + Character.MAX_VALUE, null), false);
+    }
+
+    private static List<Account> collect(NavigableSet<Entry> range, long skip, int size) {
+        List<Account> result = new ArrayList<>(Math.min(size, 64));
+        for (Entry entry : range) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(entry.account);
+            if (result.size() == size) break;
+        }
+        return result.isEmpty() ? Collections.<Account>emptyList() : result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String normalize(String ownerName) {
+        if (ownerName == null) return "";
+        return ownerName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final String owner;
+        private final Account account;
+
+        private Entry(String owner, Account account) {
+            this.owner = owner;
+            this.account = account;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = owner.compareTo(other.owner);
+            if (result != 0) return result;
+            // account == null là mốc biên của truy vấn, đứng trước mọi tài khoản cùng tên
+            if (account == null) return other.account == null ? 0 : -1;
+            if (other.account == null) return 1;
+            return account.getAccountNumber().compareTo(other.account.getAccountNumber());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package vn.vnpay.service;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import vn.vnpay.model.StandingOrder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thực thi lệnh chuyển tiền định kỳ ngay trong tiến trình, thay cho cron bên ngoài gọi {@code POST /accounts/transfer}
+ * từng lệnh một.
+ * <p>
+ * Mỗi lệnh chờ trên một {@link HashedWheelTimer}; thread của timer chỉ đẩy lệnh đến hạn vào hàng đợi. Hàng đợi được
+ * rút thành từng lô tối đa {@link #BATCH_SIZE} lệnh trên {@code executor} (không bao giờ trên event loop), lô được
+ * nhóm theo tài khoản nguồn rồi chia cho {@code parallelism} tác vụ: các lệnh cùng tài khoản nguồn chạy tuần tự trên
+ * cùng một thread nên không tranh khóa tài khoản nguồn với nhau. Mỗi lúc chỉ có một lô đang chạy.
+ * <p>
+ * Lệnh lỗi (ví dụ số dư không đủ) được ghi nhận và vẫn chạy ở kỳ sau; các kỳ đã lỡ (server dừng, lô chạy chậm)
+ * được bỏ qua chứ không chạy bù.
+ */
+public class StandingOrderScheduler {
+
+    public static final int BATCH_SIZE = 16384;
+
+    private final AccountService accountService;
+    private final Executor executor;
+    private final int parallelism;
+    private final HashedWheelTimer timer;
+
+    private final ConcurrentHashMap<String, OrderTask> orders = new ConcurrentHashMap<>();
+    private final Queue<OrderTask> dueOrders = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    public StandingOrderScheduler(AccountService accountService, Executor executor, int parallelism) {
+        this(accountService, executor, parallelism, 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param parallelism  số tác vụ tối đa mà một lô được chia ra, thường bằng số thread của {@code executor}
+     * @param tickDuration độ phân giải của timer; lệnh có thể chạy trễ tối đa một tick
+     */
+    public StandingOrderScheduler(AccountService accountService, Executor executor, int parallelism,
+                                  long tickDuration, TimeUnit unit) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Số luồng xử lý phải lớn hơn 0");
+        this.accountService = accountService;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("bank-standing-order-timer"), tickDuration, unit);
+    }
+
+    public StandingOrder schedule(String fromAccount, String toAccount, double amount,
+                                  long firstExecutionMillis, long intervalMillis) {
+        accountService.getAccount(fromAccount);
+        accountService.getAccount(toAccount);
+        if (fromAccount.equals(toAccount))
+            throw new IllegalArgumentException("Không thể chuyển tiền cho cùng một tài khoản");
+        if (amount <= 0) throw new IllegalArgumentException("Số tiền chuyển phải lớn hơn 0");
+        if (intervalMillis <= 0) throw new IllegalArgumentException("Chu kỳ phải lớn hơn 0");
+
+        StandingOrder order = new StandingOrder("SO" + UUID.randomUUID(), fromAccount, toAccount, amount,
+                intervalMillis, firstExecutionMillis);
+        OrderTask task = new OrderTask(order);
+        orders.put(order.getId(), task);
+        arm(task, System.currentTimeMillis());
+        return order;
+    }
+
+    public StandingOrder getOrder(String id) {
+        OrderTask task = orders.get(id);
+        if (task == null) throw new IllegalArgumentException("Lệnh định kỳ không tồn tại");
+        return task.order;
+    }
+
+    /**
+     * Hủy lệnh và gỡ nó khỏi timer; nếu lệnh đã nằm trong lô đến hạn thì nó bị bỏ qua khi tới lượt.
+     */
+    public boolean cancel(String id) {
+        OrderTask task = orders.remove(id);
+        if (task == null) return false;
+        task.order.setActive(false);
+        Timeout timeout = task.timeout;
+        if (timeout != null) timeout.cancel();
+        return true;
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    OrderTask task(String id) {
+        return orders.get(id);
+    }
+
+    /**
+     * Số lệnh đang chờ trên timer, kể cả lệnh vừa hủy mà timer chưa dọn ở tick kế tiếp.
+     */
+    long pendingTimeouts() {
+        return timer.pendingTimeouts();
+    }
+
+    private void arm(OrderTask task, long nowMillis) {
+        long delay = Math.max(0, task.order.getNextExecutionMillis() - nowMillis);
+        Timeout timeout = timer.newTimeout(task, delay, TimeUnit.MILLISECONDS);
+        task.timeout = timeout;
+        // cancel() có thể chạy giữa lúc kiểm tra active và lúc gán timeout mới
+        if (!task.order.isActive()) timeout.cancel();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        List<OrderTask> batch = new ArrayList<>();
+        OrderTask task;
+        while (batch.size() < BATCH_SIZE && (task = dueOrders.poll()) != null) {
+            batch.add(task);
+        }
+        if (batch.isEmpty()) {
+            draining.set(false);
+            // Timer có thể vừa thêm lệnh sau lần poll cuối
+            if (!dueOrders.isEmpty()) scheduleDrain();
+            return;
+        }
+        executeBatch(batch);
+    }
+
+    /**
+     * Nhóm lô theo tài khoản nguồn, chia các nhóm cho tối đa {@code parallelism} tác vụ; tác vụ cuối cùng hoàn
+     * tất sẽ rút lô tiếp theo.
+     */
+    void executeBatch(List<OrderTask> batch) {
+        Map<String, List<OrderTask>> bySource = new HashMap<>();
+        for (OrderTask task : batch) {
+            bySource.computeIfAbsent(task.order.getFromAccount(), k -> new ArrayList<>()).add(task);
+        }
+
+        int partitionCount = Math.min(parallelism, bySource.size());
+        List<List<List<OrderTask>>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (List<OrderTask> group : bySource.values()) {
+            partitions.get(next).add(group);
+            next = (next + 1) % partitionCount;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(partitionCount);
+        for (List<List<OrderTask>> partition : partitions) {
+            executor.execute(() -> {
+                try {
+                    executePartition(partition);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) drain();
+                }
+            });
+        }
+    }
+
+    private void executePartition(List<List<OrderTask>> groups) {
+        for (List<OrderTask> group : groups) {
+            for (OrderTask task : group) {
+                if (!task.order.isActive()) continue;
+                execute(task);
+            }
+        }
+    }
+
+    private void execute(OrderTask task) {
+        StandingOrder order = task.order;
+        String error = null;
+        try {
+            accountService.transfer(order.getFromAccount(), order.getToAccount(), order.getAmount());
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        } catch (Exception e) {
+            error = "Lỗi server";
+            e.printStackTrace();
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        long nextExecution = order.getNextExecutionMillis() + order.getIntervalMillis();
+        if (nextExecution <= nowMillis) {
+            long missed = (nowMillis - nextExecution) / order.getIntervalMillis() + 1;
+            nextExecution += missed * order.getIntervalMillis();
+        }
+        order.setNextExecutionMillis(nextExecution);
+
+        if (error == null) {
+            order.recordSuccess();
+            executedCount.increment();
+        } else {
+            order.recordFailure(error);
+            failedCount.increment();
+        }
+        if (order.isActive()) arm(task, nowMillis);
+    }
+
+    /**
+     * Task timer của một lệnh, dùng lại cho mọi kỳ; giữ {@link Timeout} hiện tại để {@link #cancel(String)} gỡ được.
+     */
+    final class OrderTask implements TimerTask {
+        private final StandingOrder order;
+        private volatile Timeout timeout;
+
+        private OrderTask(StandingOrder order) {
+            this.order = order;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            dueOrders.add(this);
+            scheduleDrain();
+        }
+    }
+}
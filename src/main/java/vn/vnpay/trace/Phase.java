@@ -0,0 +1,12 @@
+package vn.vnpay.trace;
+
+/**
+ * Các giai đoạn của một request được ghi lại trong {@link Tracer}.
+ */
+public enum Phase {
+    DECODE,
+    ROUTE,
+    SERVICE,
+    ENCODE,
+    FLUSH
+}
@@ -0,0 +1,76 @@
+package vn.vnpay.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Event JFR cho mỗi request, chỉ được tạo khi có recording đang bật event này.
+ */
+@Name("vn.vnpay.Request")
+@Label("Bank Request")
+@Category("Bank")
+@Description("Một request HTTP hoặc nhị phân với thời gian từng giai đoạn và thời gian chờ khóa tài khoản")
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(RequestEvent.class);
+
+    @Label("Route")
+    String route;
+
+    @Label("Account Number")
+    String accountNumber;
+
+    @Label("Status")
+    int status;
+
+    @Label("Total")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalNanos;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWaitNanos;
+
+    @Label("Decode")
+    @Timespan(Timespan.NANOSECONDS)
+    long decodeNanos;
+
+    @Label("Route Lookup")
+    @Timespan(Timespan.NANOSECONDS)
+    long routeNanos;
+
+    @Label("Service")
+    @Timespan(Timespan.NANOSECONDS)
+    long serviceNanos;
+
+    @Label("Encode")
+    @Timespan(Timespan.NANOSECONDS)
+    long encodeNanos;
+
+    @Label("Flush")
+    @Timespan(Timespan.NANOSECONDS)
+    long flushNanos;
+
+    static void emit(TraceRing ring, int status, long totalNanos) {
+        if (!TYPE.isEnabled()) return;
+        RequestEvent event = new RequestEvent();
+        event.route = ring.currentRoute;
+        event.accountNumber = ring.currentAccount;
+        event.status = status;
+        event.totalNanos = totalNanos;
+        event.lockWaitNanos = ring.currentLockWaitNanos;
+        event.decodeNanos = ring.currentPhaseNanos[Phase.DECODE.ordinal()];
+        event.routeNanos = ring.currentPhaseNanos[Phase.ROUTE.ordinal()];
+        event.serviceNanos = ring.currentPhaseNanos[Phase.SERVICE.ordinal()];
+        event.encodeNanos = ring.currentPhaseNanos[Phase.ENCODE.ordinal()];
+        event.flushNanos = ring.currentPhaseNanos[Phase.FLUSH.ordinal()];
+        event.commit();
+    }
+}
@@ -0,0 +1,72 @@
+package vn.vnpay.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bản chụp một request đã hoàn tất, trả về cho endpoint admin.
+ */
+public class TraceRecord {
+    private final String thread;
+    private final long startMillis;
+    private final long totalNanos;
+    private final Map<String, Long> phaseNanos;
+    private final long lockWaitNanos;
+    private final int status;
+    private final String route;
+    private final String accountNumber;
+    private final String error;
+
+    TraceRecord(String thread, long startMillis, long totalNanos, long[] phases, long lockWaitNanos,
+                int status, String route, String accountNumber, String error) {
+        this.thread = thread;
+        this.startMillis = startMillis;
+        this.totalNanos = totalNanos;
+        this.phaseNanos = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase.name().toLowerCase(Locale.ROOT), phases[phase.ordinal()]);
+        }
+        this.lockWaitNanos = lockWaitNanos;
+        this.status = status;
+        this.route = route;
+        this.accountNumber = accountNumber;
+        this.error = error;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public Map<String, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,116 @@
+package vn.vnpay.trace;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer của một thread, giữ {@link #CAPACITY} request gần nhất trong các mảng cấp phát sẵn; chỉ thread sở hữu
+ * được ghi, bên đọc bỏ qua ô có số thứ tự thay đổi trong lúc đọc.
+ */
+final class TraceRing {
+
+    static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    private static final int PHASES = Phase.values().length;
+    // Quy nanoTime ra giờ hệ thống từ một mốc chung, tránh thêm một lần đọc đồng hồ cho mỗi request
+    private static final long BASE_MILLIS = System.currentTimeMillis();
+    private static final long BASE_NANOS = System.nanoTime();
+
+    private final WeakReference<Thread> thread;
+    private final String threadName;
+
+    // Ô đã hoàn tất
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray startMillis = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(CAPACITY * PHASES);
+    private final AtomicLongArray lockWaitNanos = new AtomicLongArray(CAPACITY);
+    private final AtomicIntegerArray statuses = new AtomicIntegerArray(CAPACITY);
+    private final AtomicReferenceArray<String> routes = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicReferenceArray<String> accounts = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicReferenceArray<String> errors = new AtomicReferenceArray<>(CAPACITY);
+    private long nextSequence = 1;
+
+    // Request đang xử lý
+    boolean active;
+    long currentStartNanos;
+    long lastMarkNanos;
+    final long[] currentPhaseNanos = new long[PHASES];
+    long currentLockWaitNanos;
+    String currentRoute;
+    String currentAccount;
+    String currentError;
+
+    TraceRing(Thread thread) {
+        this.thread = new WeakReference<>(thread);
+        this.threadName = thread.getName();
+    }
+
+    boolean isThreadDead() {
+        Thread owner = thread.get();
+        return owner == null || !owner.isAlive();
+    }
+
+    void begin(long nowNanos) {
+        active = true;
+        currentStartNanos = nowNanos;
+        lastMarkNanos = nowNanos;
+        for (int i = 0; i < PHASES; i++) {
+            currentPhaseNanos[i] = 0;
+        }
+        currentLockWaitNanos = 0;
+        currentRoute = null;
+        currentAccount = null;
+        currentError = null;
+    }
+
+    void mark(Phase phase, long nowNanos) {
+        currentPhaseNanos[phase.ordinal()] += nowNanos - lastMarkNanos;
+        lastMarkNanos = nowNanos;
+    }
+
+    long commit(int status, long nowNanos) {
+        active = false;
+        long total = nowNanos - currentStartNanos;
+        long sequence = nextSequence++;
+        int slot = (int) (sequence & MASK);
+
+        // -1 báo ô đang ghi; số thứ tự mới chỉ được gán sau khi mọi trường đã ghi xong
+        sequences.set(slot, -1);
+        startMillis.lazySet(slot, BASE_MILLIS + (currentStartNanos - BASE_NANOS) / 1_000_000);
+        totalNanos.lazySet(slot, total);
+        for (int i = 0; i < PHASES; i++) {
+            phaseNanos.lazySet(slot * PHASES + i, currentPhaseNanos[i]);
+        }
+        lockWaitNanos.lazySet(slot, currentLockWaitNanos);
+        statuses.lazySet(slot, status);
+        routes.lazySet(slot, currentRoute);
+        accounts.lazySet(slot, currentAccount);
+        errors.lazySet(slot, currentError);
+        sequences.lazySet(slot, sequence);
+        return total;
+    }
+
+    /**
+     * Chép các ô đã hoàn tất và nhất quán vào {@code out}; chỉ dùng trên đường admin nên được phép cấp phát.
+     */
+    void snapshot(List<TraceRecord> out) {
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            long sequence = sequences.get(slot);
+            if (sequence <= 0) continue;
+            long[] phases = new long[PHASES];
+            for (int i = 0; i < PHASES; i++) {
+                phases[i] = phaseNanos.get(slot * PHASES + i);
+            }
+            TraceRecord record = new TraceRecord(threadName, startMillis.get(slot), totalNanos.get(slot), phases,
+                    lockWaitNanos.get(slot), statuses.get(slot), routes.get(slot), accounts.get(slot), errors.get(slot));
+            if (sequences.get(slot) == sequence) {
+                out.add(record);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package vn.vnpay.trace;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Flight recorder cho vòng đời request: mỗi thread ghi vào {@link TraceRing} riêng, không khóa và không cấp phát
+ * trên đường xử lý. Tắt hẳn bằng {@code -Dbank.tracing=false}.
+ */
+public final class Tracer {
+
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("bank.tracing"));
+
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+    private static final List<TraceRing> RINGS = new CopyOnWriteArrayList<>();
+    private static final FastThreadLocal<TraceRing> CURRENT = new FastThreadLocal<TraceRing>() {
+        @Override
+        protected TraceRing initialValue() {
+            RINGS.removeIf(TraceRing::isThreadDead);
+            TraceRing ring = new TraceRing(Thread.currentThread());
+            RINGS.add(ring);
+            return ring;
+        }
+
+        @Override
+        protected void onRemoval(TraceRing ring) {
+            // Gọi khi FastThreadLocalThread (event loop của Netty) kết thúc
+            RINGS.remove(ring);
+        }
+    };
+
+    private Tracer() {
+    }
+
+    public static void begin() {
+        if (!ENABLED) return;
+        CURRENT.get().begin(System.nanoTime());
+    }
+
+    public static void mark(Phase phase) {
+        if (!ENABLED) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring != null && ring.active) ring.mark(phase, System.nanoTime());
+    }
+
+    /**
+     * Ghi nhận route đã khớp, đồng thời đóng giai đoạn {@link Phase#ROUTE}.
+     */
+    public static void route(String route) {
+        if (!ENABLED) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring == null || !ring.active) return;
+        ring.currentRoute = route;
+        ring.mark(Phase.ROUTE, System.nanoTime());
+    }
+
+    /**
+     * Ghi số tài khoản đầu tiên mà request chạm tới.
+     */
+    public static void account(String accountNumber) {
+        if (!ENABLED) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring != null && ring.active && ring.currentAccount == null) ring.currentAccount = accountNumber;
+    }
+
+    /**
+     * Mốc thời gian trước khi vào {@code synchronized}; trả 0 khi thread không có request đang trace để khỏi gọi
+     * {@code nanoTime()}.
+     */
+    public static long lockRequested() {
+        if (!ENABLED) return 0;
+        TraceRing ring = CURRENT.getIfExists();
+        return ring != null && ring.active ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Gọi ngay khi đã vào {@code synchronized}, cộng dồn thời gian chờ khóa kể từ {@link #lockRequested()}.
+     */
+    public static void lockAcquired(long requestedNanos) {
+        if (requestedNanos == 0) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring != null && ring.active) ring.currentLockWaitNanos += System.nanoTime() - requestedNanos;
+    }
+
+    public static void error(Throwable error) {
+        if (!ENABLED) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring != null && ring.active) ring.currentError = error.getClass().getName();
+    }
+
+    public static void end(int status) {
+        if (!ENABLED) return;
+        TraceRing ring = CURRENT.getIfExists();
+        if (ring == null || !ring.active) return;
+        long nowNanos = System.nanoTime();
+        if (JFR_AVAILABLE) {
+            RequestEvent.emit(ring, status, nowNanos - ring.currentStartNanos);
+        }
+        ring.commit(status, nowNanos);
+    }
+
+    /**
+     * {@code limit} request chậm nhất trong các ring buffer của mọi thread, chậm nhất đứng đầu.
+     */
+    public static List<TraceRecord> slowest(int limit) {
+        List<TraceRecord> records = new ArrayList<>();
+        for (TraceRing ring : RINGS) {
+            ring.snapshot(records);
+        }
+        RINGS.removeIf(TraceRing::isThreadDead);
+        if (records.isEmpty()) return Collections.emptyList();
+        records.sort(Comparator.comparingLong(TraceRecord::getTotalNanos).reversed());
+        return records.size() > limit ? new ArrayList<>(records.subList(0, limit)) : records;
+    }
+
+    static int ringCount() {
+        return RINGS.size();
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
@@ -7,24 +7,34 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import vn.vnpay.BankServerInitializer;
 import vn.vnpay.model.Account;
 import vn.vnpay.service.AccountService;
 import vn.vnpay.service.InterestCalculator;
+import vn.vnpay.service.StandingOrderScheduler;
 
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 
 @RunWith(PowerMockRunner.class)
@@ -203,6 +213,199 @@ public class BankHandlerTest {
         assertEquals(account.getBalance(), fetchedAccount.getBalance(), 0.001);
     }
 
+    @Test
+    public void testFindByOwner_WithOwnerPrefix_ShouldReturnPagedAccounts() throws Exception {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        accountService.openAccount("Tran Thi B", "CHECKING");
+
+        FullHttpRequest request = createGetRequest("/accounts?owner=nguyen&page=0&size=10");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        JsonNode result = objectMapper.readTree(response.content().toString(StandardCharsets.UTF_8));
+        assertEquals(0, result.get("page").asInt());
+        assertEquals(10, result.get("size").asInt());
+        assertEquals(1, result.get("accounts").size());
+        assertEquals(account.getAccountNumber(), result.get("accounts").get(0).get("accountNumber").asText());
+    }
+
+    @Test
+    public void testExport_WithNdjsonFormat_ShouldStreamAllAccountsInChunks() throws Exception {
+        // Arrange
+        Account first = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        Account second = accountService.openAccount("Tran Thi B", "CHECKING");
+        accountService.deposit(first.getAccountNumber(), 500.0);
+
+        FullHttpRequest request = createGetRequest("/accounts/export?format=ndjson");
+        EmbeddedChannel channel = new EmbeddedChannel(new ChunkedWriteHandler(), new BankHandler(accountService));
+
+        // Act
+        channel.writeInbound(request);
+        HttpResponse response = channel.readOutbound();
+        StringBuilder body = new StringBuilder();
+        Object msg;
+        while (!((msg = channel.readOutbound()) instanceof LastHttpContent)) {
+            body.append(((HttpContent) msg).content().toString(StandardCharsets.UTF_8));
+        }
+        body.append(((HttpContent) msg).content().toString(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertTrue(HttpUtil.isTransferEncodingChunked(response));
+        String[] lines = body.toString().split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            Account exported = objectMapper.readValue(line, Account.class);
+            Account original = exported.getAccountNumber().equals(first.getAccountNumber()) ? first : second;
+            assertEquals(original.getOwnerName(), exported.getOwnerName());
+            assertEquals(original.getBalance(), exported.getBalance(), 0.001);
+        }
+    }
+
+    @Test
+    public void testFindByOwner_WithGzipAcceptedAndLargeBody_ShouldCompressResponse() {
+        // Arrange
+        for (int i = 0; i < 30; i++) {
+            accountService.openAccount("Nguyen Van A", "SAVINGS");
+        }
+        FullHttpRequest request = createGetRequest("/accounts?owner=nguyen&size=30");
+        request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP);
+        EmbeddedChannel channel = new EmbeddedChannel(
+                BankServerInitializer.newCompressor(), new BankHandler(accountService));
+
+        // Act
+        channel.writeInbound(request);
+        HttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(HttpHeaderValues.GZIP.toString(), response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testDeposit_WithGzipAcceptedAndSmallBody_ShouldNotCompressSharedMessage() throws Exception {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        String uri = "/accounts/" + account.getAccountNumber() + "/deposit";
+        String requestBody = objectMapper.writeValueAsString(objectMapper.createObjectNode().put("amount", 100.0));
+
+        // Act
+        FullHttpResponse first = null;
+        FullHttpResponse second = null;
+        for (int i = 0; i < 2; i++) {
+            FullHttpRequest request = createPostRequest(uri, requestBody);
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP);
+            EmbeddedChannel channel = new EmbeddedChannel(
+                    BankServerInitializer.newCompressor(), new BankHandler(accountService));
+            channel.writeInbound(request);
+            FullHttpResponse response = channel.readOutbound();
+            if (first == null) {
+                first = response;
+                // Nội dung dùng chung không bị ảnh hưởng khi response trước được đọc và release
+                first.content().skipBytes(first.content().readableBytes());
+                first.release();
+            } else {
+                second = response;
+            }
+        }
+
+        // Assert
+        assertFalse(second.headers().contains(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals("\"Gửi tiền thành công\"", second.content().toString(StandardCharsets.UTF_8));
+        assertEquals(200.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testSharedHandler_AcrossChannels_ShouldServeEachRequest() throws Exception {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        BankHandler sharedHandler = new BankHandler(accountService, objectMapper);
+        String uri = "/accounts/" + account.getAccountNumber();
+        EmbeddedChannel firstChannel = new EmbeddedChannel(sharedHandler);
+        EmbeddedChannel secondChannel = new EmbeddedChannel(sharedHandler);
+
+        // Act
+        firstChannel.writeInbound(createGetRequest(uri));
+        secondChannel.writeInbound(createGetRequest(uri));
+        FullHttpResponse firstResponse = firstChannel.readOutbound();
+        FullHttpResponse secondResponse = secondChannel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, firstResponse.status());
+        assertEquals(HttpResponseStatus.OK, secondResponse.status());
+        assertEquals(firstResponse.content().toString(StandardCharsets.UTF_8),
+                secondResponse.content().toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSlowestTraces_AfterFailedWithdraw_ShouldReturnTracedRequest() throws Exception {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        JsonNode jsonNode = objectMapper.createObjectNode()
+                .put("amount", 100.0);
+        String uri = "/accounts/" + account.getAccountNumber() + "/withdraw";
+        createNewChannel().writeInbound(createPostRequest(uri, objectMapper.writeValueAsString(jsonNode)));
+
+        FullHttpRequest request = createGetRequest("/admin/traces/slowest?limit=1000");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        JsonNode traces = objectMapper.readTree(response.content().toString(StandardCharsets.UTF_8));
+        JsonNode trace = null;
+        for (JsonNode node : traces) {
+            if (account.getAccountNumber().equals(node.path("accountNumber").asText())) {
+                trace = node;
+            }
+        }
+        assertNotNull(trace);
+        assertEquals("POST /accounts/{accountNumber}/withdraw", trace.get("route").asText());
+        assertEquals(400, trace.get("status").asInt());
+        assertEquals(IllegalArgumentException.class.getName(), trace.get("error").asText());
+        assertTrue(trace.get("totalNanos").asLong() > 0);
+        assertTrue(trace.get("phaseNanos").has("service"));
+    }
+
+    @Test
+    public void testCreateStandingOrder_WithValidData_ShouldScheduleOrder() throws Exception {
+        // Arrange
+        Account fromAccount = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        Account toAccount = accountService.openAccount("Tran Thi B", "CHECKING");
+        StandingOrderScheduler scheduler = new StandingOrderScheduler(accountService, Runnable::run, 1);
+        JsonNode jsonNode = objectMapper.createObjectNode()
+                .put("fromAccount", fromAccount.getAccountNumber())
+                .put("toAccount", toAccount.getAccountNumber())
+                .put("amount", 100.0)
+                .put("intervalSeconds", 86400);
+        FullHttpRequest request = createPostRequest("/standing-orders", objectMapper.writeValueAsString(jsonNode));
+        EmbeddedChannel channel = new EmbeddedChannel(new BankHandler(accountService, objectMapper, scheduler));
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        try {
+            assertEquals(HttpResponseStatus.OK, response.status());
+            JsonNode order = objectMapper.readTree(response.content().toString(StandardCharsets.UTF_8));
+            assertEquals(86400000L, order.get("intervalMillis").asLong());
+            assertEquals(1, scheduler.size());
+            assertEquals(fromAccount.getAccountNumber(), scheduler.getOrder(order.get("id").asText()).getFromAccount());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
     @Test
     public void testRequest_ToInvalidEndpoint_ShouldReturnNotFound() {
         // Arrange
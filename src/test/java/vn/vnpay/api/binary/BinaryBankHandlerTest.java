@@ -0,0 +1,174 @@
+package vn.vnpay.api.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.Before;
+import org.junit.Test;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryBankHandlerTest {
+
+    private AccountService accountService;
+
+    @Before
+    public void setUp() {
+        accountService = new AccountService();
+    }
+
+    private EmbeddedChannel createNewChannel() {
+        return new EmbeddedChannel(
+                new LengthFieldBasedFrameDecoder(BinaryProtocol.MAX_FRAME_LENGTH,
+                        0, BinaryProtocol.LENGTH_FIELD_LENGTH, 0, BinaryProtocol.LENGTH_FIELD_LENGTH),
+                new LengthFieldPrepender(BinaryProtocol.LENGTH_FIELD_LENGTH),
+                new BinaryBankHandler(accountService));
+    }
+
+    private ByteBuf createFrame(byte opcode, long correlationId, String accountNumber, double amount) {
+        ByteBuf body = Unpooled.buffer();
+        body.writeByte(opcode);
+        body.writeLong(correlationId);
+        BinaryProtocol.writeString(body, accountNumber);
+        body.writeDouble(amount);
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeInt(body.readableBytes());
+        frame.writeBytes(body);
+        body.release();
+        return frame;
+    }
+
+    private ByteBuf readResponse(EmbeddedChannel channel) {
+        ByteBuf response = Unpooled.buffer();
+        ByteBuf part;
+        while ((part = channel.readOutbound()) != null) {
+            response.writeBytes(part);
+            part.release();
+        }
+        assertEquals(response.readableBytes() - BinaryProtocol.LENGTH_FIELD_LENGTH, response.readInt());
+        return response;
+    }
+
+    @Test
+    public void testDeposit_WithValidAmount_ShouldIncreaseBalance() {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(createFrame(BinaryProtocol.OP_DEPOSIT, 42L, account.getAccountNumber(), 500.0));
+        ByteBuf response = readResponse(channel);
+
+        // Assert
+        assertEquals(BinaryProtocol.OP_DEPOSIT, response.readByte());
+        assertEquals(42L, response.readLong());
+        assertEquals(BinaryProtocol.STATUS_OK, response.readByte());
+        assertEquals(0, response.readableBytes());
+        assertEquals(500.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testGetAccount_WithValidAccountNumber_ShouldReturnAccountInfo() {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        accountService.deposit(account.getAccountNumber(), 500.0);
+        ByteBuf body = Unpooled.buffer();
+        body.writeByte(BinaryProtocol.OP_GET);
+        body.writeLong(7L);
+        BinaryProtocol.writeString(body, account.getAccountNumber());
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeInt(body.readableBytes());
+        frame.writeBytes(body);
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(frame);
+        ByteBuf response = readResponse(channel);
+
+        // Assert
+        assertEquals(BinaryProtocol.OP_GET, response.readByte());
+        assertEquals(7L, response.readLong());
+        assertEquals(BinaryProtocol.STATUS_OK, response.readByte());
+        Account fetchedAccount = BinaryProtocol.readAccount(response);
+        assertEquals(account.getAccountNumber(), fetchedAccount.getAccountNumber());
+        assertEquals(account.getOwnerName(), fetchedAccount.getOwnerName());
+        assertEquals(account.getAccountType(), fetchedAccount.getAccountType());
+        assertEquals(500.0, fetchedAccount.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testWithdraw_WithInsufficientBalance_ShouldReturnBadRequest() {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(createFrame(BinaryProtocol.OP_WITHDRAW, 3L, account.getAccountNumber(), 100.0));
+        ByteBuf response = readResponse(channel);
+
+        // Assert
+        assertEquals(BinaryProtocol.OP_WITHDRAW, response.readByte());
+        assertEquals(3L, response.readLong());
+        assertEquals(BinaryProtocol.STATUS_BAD_REQUEST, response.readByte());
+        assertEquals("Số dư không đủ", BinaryProtocol.readString(response));
+    }
+
+    @Test
+    public void testDeposit_WithTruncatedPayload_ShouldReturnBadRequest() {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        ByteBuf body = Unpooled.buffer();
+        body.writeByte(BinaryProtocol.OP_DEPOSIT);
+        body.writeLong(9L);
+        BinaryProtocol.writeString(body, account.getAccountNumber());
+        body.writeInt(0); // Thiếu 4 byte của số tiền
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeInt(body.readableBytes());
+        frame.writeBytes(body);
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(frame);
+        ByteBuf response = readResponse(channel);
+
+        // Assert
+        assertEquals(BinaryProtocol.OP_DEPOSIT, response.readByte());
+        assertEquals(9L, response.readLong());
+        assertEquals(BinaryProtocol.STATUS_BAD_REQUEST, response.readByte());
+        assertEquals("Dữ liệu yêu cầu không hợp lệ", BinaryProtocol.readString(response));
+        assertEquals(0.0, account.getBalance(), 0.001);
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    public void testPipelinedRequests_ShouldKeepConnectionOpenAndEchoCorrelationIds() {
+        // Arrange
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        EmbeddedChannel channel = createNewChannel();
+        ByteBuf frames = Unpooled.buffer();
+        frames.writeBytes(createFrame(BinaryProtocol.OP_DEPOSIT, 1L, account.getAccountNumber(), 300.0));
+        frames.writeBytes(createFrame(BinaryProtocol.OP_WITHDRAW, 2L, account.getAccountNumber(), 100.0));
+
+        // Act
+        channel.writeInbound(frames);
+        ByteBuf first = channel.readOutbound();
+        ByteBuf firstBody = channel.readOutbound();
+        ByteBuf second = channel.readOutbound();
+        ByteBuf secondBody = channel.readOutbound();
+
+        // Assert
+        assertEquals(1L, firstBody.getLong(1));
+        assertEquals(2L, secondBody.getLong(1));
+        assertEquals(first.getInt(0), firstBody.readableBytes());
+        assertEquals(second.getInt(0), secondBody.readableBytes());
+        assertNull(channel.readOutbound());
+        assertTrue(channel.isOpen());
+        assertEquals(200.0, account.getBalance(), 0.001);
+    }
+}
@@ -0,0 +1,268 @@
+package vn.vnpay.api.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Before;
+import org.junit.Test;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AccountImportHandlerTest {
+
+    private AccountService accountService;
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setUp() {
+        accountService = new AccountService();
+        objectMapper = new ObjectMapper();
+    }
+
+    private EmbeddedChannel createNewChannel() {
+        return new EmbeddedChannel(new AccountImportHandler(accountService, objectMapper, Runnable::run));
+    }
+
+    private String toJson(FullHttpResponse response) {
+        return response.content().toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testImport_WithNdjsonSplitAcrossChunks_ShouldKeepAccountNumbers() throws Exception {
+        // Arrange
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import");
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.NDJSON.contentType());
+        String body = "{\"accountNumber\":\"AC1\",\"ownerName\":\"Nguyen Van A\",\"balance\":500.0,\"accountType\":\"SAVINGS\"}\n"
+                + "{\"accountNumber\":\"AC2\",\"ownerName\":\"Tran Thi B\",\"balance\":0.0,\"accountType\":\"CHECKING\"}";
+        int split = body.indexOf("Tran");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultHttpContent(
+                Unpooled.copiedBuffer(body.substring(0, split), StandardCharsets.UTF_8)));
+        channel.writeInbound(new DefaultLastHttpContent(
+                Unpooled.copiedBuffer(body.substring(split), StandardCharsets.UTF_8)));
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(2, objectMapper.readTree(toJson(response)).get("imported").asInt());
+        assertEquals(500.0, accountService.getAccount("AC1").getBalance(), 0.001);
+        assertEquals("Tran Thi B", accountService.getAccount("AC2").getOwnerName());
+        assertEquals(1, accountService.findByOwner("tran", 0, 10).size());
+        assertNull(channel.readInbound());
+    }
+
+    @Test
+    public void testImport_WithBinaryExport_ShouldRoundTripAndSkipExistingAccounts() throws Exception {
+        // Arrange
+        AccountService source = new AccountService();
+        Account existing = source.openAccount("Nguyen Van A", "SAVINGS");
+        source.deposit(existing.getAccountNumber(), 300.0);
+        source.openAccount("Tran Thi B", "CHECKING");
+        accountService.importAccount(existing);
+
+        AccountExportInput export = new AccountExportInput(source.getAccounts(), BulkFormat.BINARY, objectMapper.writer());
+        ByteBuf body = Unpooled.buffer();
+        while (!export.isEndOfInput()) {
+            ByteBuf chunk = export.readChunk(ByteBufAllocator.DEFAULT);
+            body.writeBytes(chunk);
+            chunk.release();
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import", body);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.BINARY.contentType());
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(1, objectMapper.readTree(toJson(response)).get("imported").asInt());
+        assertEquals(1, objectMapper.readTree(toJson(response)).get("skipped").asInt());
+        assertEquals(2, accountService.getAccounts().size());
+        assertEquals(300.0, accountService.getAccount(existing.getAccountNumber()).getBalance(), 0.001);
+    }
+
+    @Test
+    public void testImport_WithMalformedLine_ShouldReturnBadRequest() {
+        // Arrange
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import",
+                Unpooled.copiedBuffer("{not json}\n", StandardCharsets.UTF_8));
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.BAD_REQUEST, response.status());
+        assertEquals("\"Dữ liệu import không hợp lệ\"", toJson(response));
+    }
+
+    @Test
+    public void testImport_WithLineLongerThanMaxRecordLength_ShouldReturnBadRequest() {
+        // Arrange
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import");
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.NDJSON.contentType());
+        // Một dòng JSON hợp lệ nhưng dấu xuống dòng chỉ tới sau hơn MAX_RECORD_LENGTH byte
+        byte[] filler = new byte[64 * 1024];
+        Arrays.fill(filler, (byte) 'a');
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer(
+                "{\"accountNumber\":\"AC1\",\"accountType\":\"SAVINGS\",\"ownerName\":\"", StandardCharsets.UTF_8)));
+        for (int i = 0; i <= AccountImportHandler.MAX_RECORD_LENGTH / filler.length; i++) {
+            channel.writeInbound(new DefaultHttpContent(Unpooled.wrappedBuffer(filler)));
+        }
+        channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("\"}\n", StandardCharsets.UTF_8)));
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.BAD_REQUEST, response.status());
+        assertEquals("\"Dữ liệu import không hợp lệ\"", toJson(response));
+        assertEquals(0, accountService.getAccounts().size());
+    }
+
+    @Test
+    public void testImport_WithTruncatedBinaryRecord_ShouldReturnBadRequest() {
+        // Arrange
+        ByteBuf body = Unpooled.buffer();
+        body.writeInt(4);
+        body.writeShort(100); // Chuỗi khai báo 100 byte nhưng bản ghi chỉ còn 2 byte
+        body.writeShort(0);
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import", body);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.BINARY.contentType());
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.BAD_REQUEST, response.status());
+        assertEquals("\"Dữ liệu import không hợp lệ\"", toJson(response));
+    }
+
+    @Test
+    public void testImport_WithBinaryRecordLongerThanUnsignedShort_ShouldRoundTrip() throws Exception {
+        // Arrange
+        AccountService source = new AccountService();
+        char[] name = new char[40_000];
+        Arrays.fill(name, 'n');
+        Account large = source.openAccount(new String(name), new String(name));
+        Account small = source.openAccount("Tran Thi B", "CHECKING");
+
+        AccountExportInput export = new AccountExportInput(source.getAccounts(), BulkFormat.BINARY, objectMapper.writer());
+        ByteBuf body = Unpooled.buffer();
+        while (!export.isEndOfInput()) {
+            ByteBuf chunk = export.readChunk(ByteBufAllocator.DEFAULT);
+            body.writeBytes(chunk);
+            chunk.release();
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import", body);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.BINARY.contentType());
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(2, objectMapper.readTree(toJson(response)).get("imported").asInt());
+        assertEquals(large.getOwnerName(), accountService.getAccount(large.getAccountNumber()).getOwnerName());
+        assertEquals("Tran Thi B", accountService.getAccount(small.getAccountNumber()).getOwnerName());
+    }
+
+    @Test
+    public void testImport_WithMissingOwnerNameAndAccountType_ShouldReturnBadRequest() {
+        // Arrange
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import",
+                Unpooled.copiedBuffer("{\"accountNumber\":\"X1\"}\n", StandardCharsets.UTF_8));
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(HttpResponseStatus.BAD_REQUEST, response.status());
+        assertEquals("\"Dữ liệu import không hợp lệ\"", toJson(response));
+        assertEquals(0, accountService.getAccounts().size());
+    }
+
+    @Test
+    public void testBinaryExport_WithOwnerNameLongerThan65535Bytes_ShouldSkipAccount() throws Exception {
+        // Arrange
+        char[] name = new char[70_000];
+        Arrays.fill(name, 'n');
+        // Tài khoản tạo thẳng, không qua AccountService nên không bị chặn khi mở
+        Account oversized = new Account("AC1", new String(name), "SAVINGS");
+        Account small = new Account("AC2", "Tran Thi B", "CHECKING");
+        AccountExportInput export = new AccountExportInput(
+                Arrays.asList(oversized, small), BulkFormat.BINARY, objectMapper.writer());
+
+        // Act
+        ByteBuf body = Unpooled.buffer();
+        while (!export.isEndOfInput()) {
+            ByteBuf chunk = export.readChunk(ByteBufAllocator.DEFAULT);
+            body.writeBytes(chunk);
+            chunk.release();
+        }
+        FullHttpRequest request = new DefaultFullHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import", body);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, BulkFormat.BINARY.contentType());
+        EmbeddedChannel channel = createNewChannel();
+        channel.writeInbound(request);
+        FullHttpResponse response = channel.readOutbound();
+
+        // Assert
+        assertEquals(1, export.getSkippedCount());
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(1, objectMapper.readTree(toJson(response)).get("imported").asInt());
+        assertEquals("Tran Thi B", accountService.getAccount("AC2").getOwnerName());
+    }
+
+    @Test
+    public void testOtherRequest_ShouldBePassedThrough() {
+        // Arrange
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/accounts/AC1");
+        EmbeddedChannel channel = createNewChannel();
+
+        // Act
+        channel.writeInbound(request);
+
+        // Assert
+        assertEquals(request, channel.readInbound());
+        assertNull(channel.readOutbound());
+    }
+}
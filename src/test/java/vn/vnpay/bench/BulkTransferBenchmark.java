@@ -0,0 +1,112 @@
+package vn.vnpay.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import vn.vnpay.api.bulk.AccountExportInput;
+import vn.vnpay.api.bulk.AccountImportHandler;
+import vn.vnpay.api.bulk.BulkFormat;
+import vn.vnpay.service.AccountService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Đo tốc độ export/import (MB/s) cho cả NDJSON và định dạng nhị phân.
+ * <p>
+ * Export đọc trực tiếp {@link AccountExportInput} như {@code ChunkedWriteHandler} làm. Import đẩy các chunk đã
+ * export vào {@link AccountImportHandler} và tôn trọng autoRead như socket thật. Với 10 triệu tài khoản cần
+ * khoảng -Xmx8g vì dữ liệu export được giữ trong bộ nhớ để đo import.
+ * <pre>
+ * java -Xmx8g -cp target/classes:target/test-classes vn.vnpay.bench.BulkTransferBenchmark [accounts]
+ * </pre>
+ */
+public class BulkTransferBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        ObjectMapper objectMapper = new ObjectMapper();
+        AccountService source = new AccountService();
+        for (int i = 0; i < accountCount; i++) {
+            source.openAccount("Nguyen Van " + i, i % 2 == 0 ? "SAVINGS" : "CHECKING");
+        }
+
+        ExecutorService importExecutor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), new DefaultThreadFactory("bench-import"));
+        try {
+            for (BulkFormat format : BulkFormat.values()) {
+                long start = System.nanoTime();
+                List<ByteBuf> chunks = export(source, format, objectMapper);
+                long exportNanos = System.nanoTime() - start;
+                long bytes = 0;
+                for (ByteBuf chunk : chunks) {
+                    bytes += chunk.readableBytes();
+                }
+
+                AccountService target = new AccountService();
+                start = System.nanoTime();
+                String result = importChunks(target, format, chunks, objectMapper, importExecutor);
+                long importNanos = System.nanoTime() - start;
+
+                System.out.printf("%-6s %,d accounts  %,d MB   export %.1f MB/s   import %.1f MB/s   %s%n",
+                        format, accountCount, bytes >> 20, mbPerSecond(bytes, exportNanos),
+                        mbPerSecond(bytes, importNanos), result);
+            }
+        } finally {
+            importExecutor.shutdown();
+        }
+    }
+
+    private static List<ByteBuf> export(AccountService source, BulkFormat format, ObjectMapper objectMapper)
+            throws Exception {
+        AccountExportInput input = new AccountExportInput(source.getAccounts(), format, objectMapper.writer());
+        List<ByteBuf> chunks = new ArrayList<>();
+        while (!input.isEndOfInput()) {
+            chunks.add(input.readChunk(ByteBufAllocator.DEFAULT));
+        }
+        return chunks;
+    }
+
+    private static String importChunks(AccountService target, BulkFormat format, List<ByteBuf> chunks,
+                                       ObjectMapper objectMapper, ExecutorService importExecutor) {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new AccountImportHandler(target, objectMapper, importExecutor));
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/accounts/import");
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, format.contentType());
+        channel.writeInbound(request);
+        for (ByteBuf chunk : chunks) {
+            while (!channel.config().isAutoRead()) {
+                channel.runPendingTasks();
+                Thread.yield();
+            }
+            channel.writeInbound(new DefaultHttpContent(chunk));
+        }
+        channel.writeInbound(LastHttpContent.EMPTY_LAST_CONTENT);
+
+        Object response;
+        while ((response = channel.readOutbound()) == null) {
+            channel.runPendingTasks();
+            Thread.yield();
+        }
+        String result = ((FullHttpResponse) response).content().toString(StandardCharsets.UTF_8);
+        ((FullHttpResponse) response).release();
+        return result;
+    }
+
+    private static double mbPerSecond(long bytes, long nanos) {
+        return (bytes / 1048576.0) / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,91 @@
+package vn.vnpay.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+import vn.vnpay.BankServerInitializer;
+import vn.vnpay.api.HttpResponses;
+import vn.vnpay.model.Account;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đo số byte trên đường truyền và CPU cho mỗi response ở các kích thước payload khác nhau,
+ * qua đúng {@code HttpContentCompressor} và encoder HTTP mà server dùng.
+ * <pre>
+ * java -cp target/classes:target/test-classes vn.vnpay.bench.CompressionBenchmark [iterations]
+ * </pre>
+ */
+public class CompressionBenchmark {
+
+    private static final int[] PAYLOAD_SIZES = {256, 4 * 1024, 64 * 1024, 1024 * 1024};
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        List<String> encodings = new ArrayList<>();
+        encodings.add("identity");
+        encodings.add("gzip");
+        encodings.add("deflate");
+        if (Brotli.isAvailable()) {
+            encodings.add("br");
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        for (int size : PAYLOAD_SIZES) {
+            byte[] payload = payload(size);
+            int rounds = Math.max(20, iterations * 4096 / Math.max(size, 4096));
+            for (String encoding : encodings) {
+                run(payload, encoding, rounds / 4);
+                long cpuStart = threads.getCurrentThreadCpuTime();
+                long wireBytes = run(payload, encoding, rounds);
+                long cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+                System.out.printf("payload %,9d B  %-8s  wire %,9d B/response   cpu %,9.1f us/response%n",
+                        payload.length, encoding, wireBytes / rounds, cpuNanos / 1e3 / rounds);
+            }
+        }
+    }
+
+    private static long run(byte[] payload, String encoding, int rounds) {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(), BankServerInitializer.newCompressor());
+        long wireBytes = 0;
+        for (int i = 0; i < rounds; i++) {
+            FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/accounts");
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, encoding);
+            channel.writeInbound(request);
+            ReferenceCountUtil.release(channel.readInbound());
+            channel.writeOutbound(HttpResponses.buildResponse(HttpResponseStatus.OK, payload));
+            Object msg;
+            while ((msg = channel.readOutbound()) != null) {
+                wireBytes += ((ByteBuf) msg).readableBytes();
+                ReferenceCountUtil.release(msg);
+            }
+        }
+        channel.finishAndReleaseAll();
+        return wireBytes;
+    }
+
+    private static byte[] payload(int size) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Account> accounts = new ArrayList<>();
+        byte[] json = objectMapper.writeValueAsBytes(accounts);
+        for (int i = 0; json.length < size; i++) {
+            Account account = new Account("AC" + java.util.UUID.randomUUID(), "Nguyen Van " + i, "SAVINGS");
+            account.setBalance(i * 1000.5);
+            accounts.add(account);
+            json = objectMapper.writeValueAsBytes(accounts);
+        }
+        return json;
+    }
+}
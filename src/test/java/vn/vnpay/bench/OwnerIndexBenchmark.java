@@ -0,0 +1,79 @@
+package vn.vnpay.bench;
+
+import vn.vnpay.model.Account;
+import vn.vnpay.service.OwnerIndex;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Đo bộ nhớ và độ trễ tìm kiếm của {@link OwnerIndex}.
+ * <p>
+ * Các tài khoản được tạo trước, nên phần heap tăng thêm khi dựng chỉ mục chính là bộ nhớ của chỉ mục.
+ * Với 10 triệu tài khoản cần khoảng -Xmx6g.
+ * <pre>
+ * java -Xmx6g -cp target/classes:target/test-classes vn.vnpay.bench.OwnerIndexBenchmark [accounts] [lookups]
+ * </pre>
+ */
+public class OwnerIndexBenchmark {
+
+    private static final String[] FAMILY = {"Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu", "Vo", "Dang"};
+    private static final String[] MIDDLE = {"Van", "Thi", "Duc", "Minh", "Ngoc", "Thanh", "Quoc", "Hai"};
+    private static final String[] GIVEN = {"An", "Binh", "Chi", "Dung", "Giang", "Hoa", "Khoa", "Linh", "Nam", "Tuan"};
+
+    public static void main(String[] args) {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(42);
+
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new Account("AC" + UUID.randomUUID(), randomName(random), "SAVINGS");
+        }
+
+        long before = usedHeap();
+        OwnerIndex index = new OwnerIndex();
+        long start = System.nanoTime();
+        for (Account account : accounts) {
+            index.add(account);
+        }
+        long buildNanos = System.nanoTime() - start;
+        long indexBytes = usedHeap() - before;
+
+        System.out.printf("accounts %,d   build %.1f s   index %,d MB (%.1f B/account)%n",
+                accountCount, buildNanos / 1e9, indexBytes >> 20, (double) indexBytes / accountCount);
+
+        measure("exact ", index, random, lookups, true);
+        measure("prefix", index, random, lookups, false);
+    }
+
+    private static void measure(String name, OwnerIndex index, Random random, int lookups, boolean exact) {
+        long[] latencies = new long[lookups];
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            String query = exact ? randomName(random) : FAMILY[random.nextInt(FAMILY.length)] + " "
+                    + MIDDLE[random.nextInt(MIDDLE.length)];
+            long start = System.nanoTime();
+            found += index.findByOwnerPrefix(query, 0, 20).size();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s page of 20: p50 %,d ns   p99 %,d ns   max %,d ns   (avg hits %.1f)%n",
+                name, latencies[lookups / 2], latencies[lookups * 99 / 100], latencies[lookups - 1],
+                (double) found / lookups);
+    }
+
+    private static String randomName(Random random) {
+        return FAMILY[random.nextInt(FAMILY.length)] + " " + MIDDLE[random.nextInt(MIDDLE.length)] + " "
+                + GIVEN[random.nextInt(GIVEN.length)] + " " + random.nextInt(10_000);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package vn.vnpay.bench;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+import vn.vnpay.service.StandingOrderScheduler;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo tốc độ thực thi khi toàn bộ lệnh định kỳ đến hạn cùng lúc (kịch bản nửa đêm).
+ * <p>
+ * Mỗi tài khoản nguồn có {@code ordersPerSource} lệnh tới các tài khoản ngẫu nhiên; mọi lệnh có cùng thời điểm chạy
+ * đầu tiên, chu kỳ một ngày. Với 1 triệu lệnh cần khoảng -Xmx2g.
+ * <pre>
+ * java -Xmx2g -cp target/classes:target/test-classes:... vn.vnpay.bench.StandingOrderBenchmark [orders] [ordersPerSource] [threads]
+ * </pre>
+ */
+public class StandingOrderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ordersPerSource = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+
+        AccountService accountService = new AccountService();
+        int accountCount = Math.max(2, orderCount / ordersPerSource);
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = accountService.openAccount("Owner " + i, "SAVINGS");
+            accountService.deposit(accounts[i].getAccountNumber(), 1_000_000_000.0);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("bench-standing-order"));
+        StandingOrderScheduler scheduler = new StandingOrderScheduler(accountService, executor, threads);
+
+        long before = usedHeap();
+        long dueAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        long start = System.nanoTime();
+        for (int i = 0; i < orderCount; i++) {
+            int from = i / ordersPerSource % accountCount;
+            int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+            scheduler.schedule(accounts[from].getAccountNumber(), accounts[to].getAccountNumber(), 1.0,
+                    dueAt, TimeUnit.DAYS.toMillis(1));
+        }
+        long scheduleNanos = System.nanoTime() - start;
+        long scheduledBytes = usedHeap() - before;
+        System.out.printf("orders %,d   sources %,d   threads %d%n", orderCount, accountCount, threads);
+        System.out.printf("schedule %,.0f orders/s   heap %,d MB (%.0f B/order)%n",
+                orderCount / (scheduleNanos / 1e9), scheduledBytes >> 20, (double) scheduledBytes / orderCount);
+
+        long waitMillis = dueAt - System.currentTimeMillis();
+        if (waitMillis > 0) Thread.sleep(waitMillis);
+        long firstDueNanos = System.nanoTime();
+        while (scheduler.getExecutedCount() + scheduler.getFailedCount() < orderCount) {
+            Thread.sleep(1);
+        }
+        long executeNanos = System.nanoTime() - firstDueNanos;
+        System.out.printf("execute %,.0f orders/s   last order done %,d ms after due time   failed %,d%n",
+                orderCount / (executeNanos / 1e9), TimeUnit.NANOSECONDS.toMillis(executeNanos),
+                scheduler.getFailedCount());
+
+        scheduler.stop();
+        executor.shutdown();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
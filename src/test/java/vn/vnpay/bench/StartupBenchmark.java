@@ -0,0 +1,88 @@
+package vn.vnpay.bench;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đo thời gian từ lúc khởi chạy JVM tới response đầu tiên và chi phí trung bình của mỗi kết nối mới.
+ * <p>
+ * Server chạy trong một JVM con qua {@code vn.vnpay.Main}; các tham số JVM thêm (ví dụ
+ * {@code -XX:SharedArchiveFile=target/bank.jsa}) được truyền sau số kết nối. JVM con dùng classpath của
+ * benchmark, nên khi đo AppCDS classpath phải bắt đầu bằng jar và dependency giống lúc tạo archive.
+ * <pre>
+ * java -cp target/classes:target/test-classes vn.vnpay.bench.StartupBenchmark [connections] [jvm options...]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final int PORT = 18080;
+    private static final byte[] REQUEST = ("GET /accounts/AC0 HTTP/1.1\r\nHost: localhost\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (int i = 1; i < args.length; i++) {
+            command.add(args[i]);
+        }
+        command.add("-Dbank.port=" + PORT);
+        command.add("-Dbank.binaryPort=" + (PORT + 1));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("vn.vnpay.Main");
+
+        long start = System.nanoTime();
+        Process server = new ProcessBuilder(command).inheritIO().start();
+        try {
+            while (!tryRequest()) {
+                Thread.sleep(1);
+            }
+            long firstResponseNanos = System.nanoTime() - start;
+
+            for (int i = 0; i < connections / 10; i++) {
+                tryRequest();
+            }
+            long connectStart = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                tryRequest();
+            }
+            long perConnectionNanos = (System.nanoTime() - connectStart) / connections;
+
+            System.out.printf("time to first response %,d ms   connection+request %,d us (%d connections)%n",
+                    firstResponseNanos / 1_000_000, perConnectionNanos / 1_000, connections);
+        } finally {
+            server.destroy();
+            server.waitFor();
+        }
+    }
+
+    /**
+     * Mở một kết nối mới, gửi request và đọc tới khi server đóng kết nối.
+     */
+    private static boolean tryRequest() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", PORT), 1000);
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            out.write(REQUEST);
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            int total = 0;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+            return total > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
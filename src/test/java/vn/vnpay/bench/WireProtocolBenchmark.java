@@ -0,0 +1,118 @@
+package vn.vnpay.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import vn.vnpay.api.BankHandler;
+import vn.vnpay.api.binary.BinaryBankHandler;
+import vn.vnpay.api.binary.BinaryProtocol;
+import vn.vnpay.model.Account;
+import vn.vnpay.service.AccountService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * So sánh ops/giây và số byte mỗi thao tác gửi tiền giữa HTTP/JSON và giao thức nhị phân.
+ * <p>
+ * Chạy toàn bộ pipeline phía server trên {@link EmbeddedChannel} nên đo đúng chi phí framing và
+ * parse, không tính mạng. Kết nối HTTP bị đóng sau mỗi response nên mỗi request dùng một kênh mới.
+ * <pre>
+ * mvn test-compile
+ * java -cp target/classes:target/test-classes:&lt;netty, jackson&gt; vn.vnpay.bench.WireProtocolBenchmark [ops]
+ * </pre>
+ */
+public class WireProtocolBenchmark {
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        AccountService accountService = new AccountService();
+        Account account = accountService.openAccount("Nguyen Van A", "SAVINGS");
+
+        byte[] jsonRequest = jsonDeposit(account.getAccountNumber());
+        byte[] binaryRequest = binaryDeposit(account.getAccountNumber());
+
+        // Làm nóng JIT trước khi đo
+        runJson(accountService, jsonRequest, ops / 4);
+        runBinary(accountService, binaryRequest, ops / 4);
+
+        report("json", ops, jsonRequest.length, runJson(accountService, jsonRequest, ops));
+        report("binary", ops, binaryRequest.length, runBinary(accountService, binaryRequest, ops));
+    }
+
+    private static long[] runJson(AccountService accountService, byte[] request, int ops) {
+        // Như server thật: handler và ObjectMapper dùng chung, chỉ codec là mới cho mỗi kết nối
+        BankHandler handler = new BankHandler(accountService, new ObjectMapper());
+        long responseBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel(
+                    new HttpServerCodec(), new HttpObjectAggregator(1048576), handler);
+            channel.writeInbound(Unpooled.wrappedBuffer(request));
+            responseBytes += drain(channel);
+            channel.finishAndReleaseAll();
+        }
+        return new long[]{System.nanoTime() - start, responseBytes};
+    }
+
+    private static long[] runBinary(AccountService accountService, byte[] request, int ops) {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new LengthFieldBasedFrameDecoder(BinaryProtocol.MAX_FRAME_LENGTH,
+                        0, BinaryProtocol.LENGTH_FIELD_LENGTH, 0, BinaryProtocol.LENGTH_FIELD_LENGTH),
+                new LengthFieldPrepender(BinaryProtocol.LENGTH_FIELD_LENGTH),
+                new BinaryBankHandler(accountService));
+        long responseBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            channel.writeInbound(Unpooled.wrappedBuffer(request));
+            responseBytes += drain(channel);
+        }
+        long elapsed = System.nanoTime() - start;
+        channel.finishAndReleaseAll();
+        return new long[]{elapsed, responseBytes};
+    }
+
+    private static long drain(EmbeddedChannel channel) {
+        long bytes = 0;
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ByteBuf buf = (ByteBuf) msg;
+            bytes += buf.readableBytes();
+            buf.release();
+        }
+        return bytes;
+    }
+
+    private static byte[] jsonDeposit(String accountNumber) {
+        String body = "{\"amount\":1.0}";
+        String request = "POST /accounts/" + accountNumber + "/deposit HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.length() + "\r\n"
+                + "\r\n"
+                + body;
+        return request.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] binaryDeposit(String accountNumber) {
+        ByteBuf body = Unpooled.buffer();
+        body.writeByte(BinaryProtocol.OP_DEPOSIT);
+        body.writeLong(1L);
+        BinaryProtocol.writeString(body, accountNumber);
+        body.writeDouble(1.0);
+        byte[] frame = new byte[BinaryProtocol.LENGTH_FIELD_LENGTH + body.readableBytes()];
+        Unpooled.wrappedBuffer(frame).setInt(0, body.readableBytes()).setBytes(BinaryProtocol.LENGTH_FIELD_LENGTH, body);
+        body.release();
+        return frame;
+    }
+
+    private static void report(String name, int ops, int requestBytes, long[] result) {
+        double seconds = result[0] / 1e9;
+        System.out.printf("%-7s %,12.0f ops/s   request %4d B/op   response %6.1f B/op%n",
+                name, ops / seconds, requestBytes, (double) result[1] / ops);
+    }
+}
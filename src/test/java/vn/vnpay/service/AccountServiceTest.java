@@ -9,8 +9,12 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import vn.vnpay.model.Account;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({InterestCalculator.class})
@@ -34,6 +38,13 @@ public class AccountServiceTest {
         assertEquals(0.0, account.getBalance(), 0.001);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenAccount_WithOwnerNameLongerThan65535Bytes_ShouldThrowException() {
+        char[] name = new char[40_000];
+        Arrays.fill(name, 'ư'); // 2 byte UTF-8 mỗi ký tự
+        accountService.openAccount(new String(name), "SAVINGS");
+    }
+
     @Test
     public void testDeposit_WithValidAmount_ShouldIncreaseBalance() {
         accountService.deposit(account.getAccountNumber(), 500.0);
@@ -99,6 +110,53 @@ public class AccountServiceTest {
         accountService.getAccount("NonExistentAccount");
     }
 
+    @Test
+    public void testFindByOwner_WithPrefixIgnoringCase_ShouldReturnMatchingAccounts() {
+        Account second = accountService.openAccount("Nguyen Van B", "CHECKING");
+        accountService.openAccount("Tran Thi C", "SAVINGS");
+
+        List<Account> found = accountService.findByOwner("nguyen van", 0, 10);
+
+        assertEquals(2, found.size());
+        assertEquals(account.getAccountNumber(), found.get(0).getAccountNumber());
+        assertEquals(second.getAccountNumber(), found.get(1).getAccountNumber());
+    }
+
+    @Test
+    public void testFindByOwner_WithPaging_ShouldReturnRequestedPage() {
+        Account second = accountService.openAccount("Nguyen Van A", "CHECKING");
+        Account third = accountService.openAccount("Nguyen Van A", "SAVINGS");
+
+        List<Account> firstPage = accountService.findByOwner("Nguyen Van A", 0, 2);
+        List<Account> secondPage = accountService.findByOwner("Nguyen Van A", 1, 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertTrue(firstPage.contains(account) || secondPage.contains(account));
+        assertTrue(firstPage.contains(second) || secondPage.contains(second));
+        assertTrue(firstPage.contains(third) || secondPage.contains(third));
+    }
+
+    @Test
+    public void testFindByOwnerAfter_WithCursor_ShouldContinueFromLastAccount() {
+        Account second = accountService.openAccount("Nguyen Van A", "CHECKING");
+        Account third = accountService.openAccount("Nguyen Van B", "SAVINGS");
+        accountService.openAccount("Tran Thi C", "SAVINGS");
+
+        List<Account> firstPage = accountService.findByOwner("nguyen", 0, 2);
+        List<Account> secondPage = accountService.findByOwnerAfter("nguyen", firstPage.get(1).getAccountNumber(), 2);
+
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.contains(account) && firstPage.contains(second));
+        assertEquals(1, secondPage.size());
+        assertEquals(third.getAccountNumber(), secondPage.get(0).getAccountNumber());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindByOwner_WithPageBeyondMaxOffset_ShouldThrowException() {
+        accountService.findByOwner("nguyen", OwnerIndex.MAX_OFFSET, 100);
+    }
+
     @Test
     public void testApplyMonthlyInterest_WithMockedInterestCalculator_ShouldIncreaseBalance() {
         accountService.deposit(account.getAccountNumber(), 1000.0);
@@ -0,0 +1,136 @@
+package vn.vnpay.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import vn.vnpay.model.Account;
+import vn.vnpay.model.StandingOrder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StandingOrderSchedulerTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private AccountService accountService;
+    private StandingOrderScheduler scheduler;
+    private Account source;
+    private Account target;
+
+    @Before
+    public void setUp() {
+        accountService = new AccountService();
+        // Chạy lô ngay trên thread gọi để kết quả xác định
+        scheduler = new StandingOrderScheduler(accountService, Runnable::run, 2, 10, TimeUnit.MILLISECONDS);
+        source = accountService.openAccount("Nguyen Van A", "SAVINGS");
+        target = accountService.openAccount("Tran Thi B", "CHECKING");
+        accountService.deposit(source.getAccountNumber(), 1000.0);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testExecuteBatch_WithOrdersFromSameSource_ShouldTransferAndReschedule() {
+        // Arrange
+        long firstExecution = System.currentTimeMillis() + ONE_HOUR;
+        StandingOrder first = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 100.0, firstExecution, ONE_HOUR);
+        StandingOrder second = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 200.0, firstExecution, ONE_HOUR);
+
+        // Act
+        scheduler.executeBatch(Arrays.asList(scheduler.task(first.getId()), scheduler.task(second.getId())));
+
+        // Assert
+        assertEquals(700.0, source.getBalance(), 0.001);
+        assertEquals(300.0, target.getBalance(), 0.001);
+        assertEquals(2, scheduler.getExecutedCount());
+        assertEquals(1, first.getExecutedCount());
+        assertEquals(firstExecution + ONE_HOUR, first.getNextExecutionMillis());
+    }
+
+    @Test
+    public void testExecuteBatch_WithInsufficientBalance_ShouldRecordFailureAndKeepOrder() {
+        // Arrange
+        long firstExecution = System.currentTimeMillis() + ONE_HOUR;
+        StandingOrder order = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 5000.0, firstExecution, ONE_HOUR);
+
+        // Act
+        scheduler.executeBatch(Arrays.asList(scheduler.task(order.getId())));
+
+        // Assert
+        assertEquals(1000.0, source.getBalance(), 0.001);
+        assertEquals(1, order.getFailedCount());
+        assertEquals("Số dư không đủ", order.getLastError());
+        assertTrue(order.isActive());
+    }
+
+    @Test
+    public void testExecuteBatch_WithCancelledOrder_ShouldSkipTransfer() {
+        // Arrange
+        StandingOrder order = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 100.0,
+                System.currentTimeMillis() + ONE_HOUR, ONE_HOUR);
+        StandingOrderScheduler.OrderTask task = scheduler.task(order.getId());
+        assertTrue(scheduler.cancel(order.getId()));
+
+        // Act
+        scheduler.executeBatch(Arrays.asList(task));
+
+        // Assert
+        assertEquals(1000.0, source.getBalance(), 0.001);
+        assertEquals(0, scheduler.size());
+        assertFalse(scheduler.cancel(order.getId()));
+    }
+
+    @Test
+    public void testCancel_BeforeOrderFallsDue_ShouldRemoveTimeoutAndNeverExecute() throws Exception {
+        // Arrange
+        StandingOrder order = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 100.0,
+                System.currentTimeMillis() + 100, ONE_HOUR);
+        assertEquals(1, scheduler.pendingTimeouts());
+
+        // Act
+        assertTrue(scheduler.cancel(order.getId()));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.pendingTimeouts() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+
+        // Assert
+        assertEquals(0, scheduler.pendingTimeouts());
+        assertEquals(0, order.getExecutedCount());
+        assertEquals(0, scheduler.getExecutedCount());
+        assertEquals(1000.0, source.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testSchedule_WhenOrderFallsDue_ShouldExecuteOnTimer() throws Exception {
+        // Arrange
+        StandingOrder order = scheduler.schedule(source.getAccountNumber(), target.getAccountNumber(), 100.0,
+                System.currentTimeMillis(), ONE_HOUR);
+
+        // Act
+        long deadline = System.currentTimeMillis() + 5000;
+        while (order.getExecutedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(1, order.getExecutedCount());
+        assertEquals(900.0, source.getBalance(), 0.001);
+        assertTrue(order.getNextExecutionMillis() > System.currentTimeMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSchedule_WithSameSourceAndTarget_ShouldThrowException() {
+        scheduler.schedule(source.getAccountNumber(), source.getAccountNumber(), 100.0,
+                System.currentTimeMillis(), ONE_HOUR);
+    }
+}
@@ -0,0 +1,73 @@
+package vn.vnpay.trace;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TracerTest {
+
+    private static void runInNewThread(Runnable task) throws InterruptedException {
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+    }
+
+    @Test
+    public void testServiceCalls_WithoutBegin_ShouldNotAllocateRing() throws Exception {
+        // Arrange
+        int before = Tracer.ringCount();
+
+        // Act
+        runInNewThread(() -> {
+            Tracer.account("AC1");
+            Tracer.lockAcquired(Tracer.lockRequested());
+            Tracer.mark(Phase.SERVICE);
+            Tracer.end(200);
+        });
+
+        // Assert
+        assertEquals(before, Tracer.ringCount());
+    }
+
+    @Test
+    public void testLockRequested_OutsideTracedRequest_ShouldReturnZero() throws Exception {
+        // Arrange
+        long[] requested = new long[2];
+
+        // Act
+        runInNewThread(() -> {
+            requested[0] = Tracer.lockRequested();
+            Tracer.begin();
+            Tracer.end(200);
+            requested[1] = Tracer.lockRequested();
+        });
+
+        // Assert
+        assertEquals(0, requested[0]);
+        assertEquals(0, requested[1]);
+    }
+
+    @Test
+    public void testSlowest_AfterThreadExits_ShouldReturnRecordAndDropRing() throws Exception {
+        // Arrange
+        String accountNumber = "AC-" + System.nanoTime();
+        runInNewThread(() -> {
+            Tracer.begin();
+            Tracer.route("GET /accounts/{accountNumber}");
+            Tracer.account(accountNumber);
+            Tracer.mark(Phase.SERVICE);
+            Tracer.end(200);
+        });
+        int ringsWithDeadThread = Tracer.ringCount();
+
+        // Act
+        List<TraceRecord> records = Tracer.slowest(TraceRing.CAPACITY);
+
+        // Assert
+        assertTrue(records.stream().anyMatch(record -> accountNumber.equals(record.getAccountNumber())));
+        assertTrue(Tracer.ringCount() < ringsWithDeadThread);
+    }
+}